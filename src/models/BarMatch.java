@@ -0,0 +1,40 @@
+package models;
+
+import java.util.List;
+
+/**
+ * Результат поиска «что можно приготовить из моего бара»: коктейль и ингредиенты, которых не хватает.
+ */
+public class BarMatch {
+    private final Cocktail cocktail;
+    private final int missingCount; // сколько различных ингредиентов не хватает
+    private final List<Ingredient> missingIngredients; // чего не хватает (пусто — можно готовить)
+
+    public BarMatch(Cocktail cocktail, int missingCount, List<Ingredient> missingIngredients) {
+        this.cocktail = cocktail;
+        this.missingCount = missingCount;
+        this.missingIngredients = missingIngredients;
+    }
+
+    // Getters
+    public Cocktail getCocktail() {
+        return cocktail;
+    }
+
+    public int getMissingCount() {
+        return missingCount;
+    }
+
+    public List<Ingredient> getMissingIngredients() {
+        return missingIngredients;
+    }
+
+    public boolean isComplete() {
+        return missingCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return missingCount == 0 ? cocktail.toString() : cocktail + " — не хватает: " + missingCount;
+    }
+}
@@ -78,6 +78,15 @@ public class Cocktail {
         this.preparationSteps.remove(step);
     }
 
+    // Суммарная длительность шагов приготовления в минутах (шаги хранятся в секундах, сумма округляется вверх)
+    public int getTotalStepDuration() {
+        int seconds = 0;
+        for (PreparationStep step : getPreparationSteps()) {
+            seconds += step.getDuration();
+        }
+        return (seconds + 59) / 60;
+    }
+
     public String getImageUrl() {
         return imageUrl;
     }
@@ -0,0 +1,66 @@
+package models;
+
+/**
+ * Краткое представление коктейля для списков: без описания, ингредиентов и шагов.
+ * Полный Cocktail запрашивается по ID, когда пользователь открывает подробности.
+ */
+public class CocktailSummary {
+    private final int id;
+    private final String name;
+    private final String alcoholBase; // водка, ром, джин и т.д.
+    private final String difficulty; // EASY, MEDIUM, HARD
+    private final int preparationTime; // в минутах
+    private final double averageRating; // средняя оценка
+    private final String imageUrl; // путь к файлу изображения
+
+    public CocktailSummary(int id, String name, String alcoholBase, String difficulty,
+                           int preparationTime, double averageRating, String imageUrl) {
+        this.id = id;
+        this.name = name;
+        this.alcoholBase = alcoholBase;
+        this.difficulty = difficulty;
+        this.preparationTime = preparationTime;
+        this.averageRating = averageRating;
+        this.imageUrl = imageUrl;
+    }
+
+    // Краткое представление существующего коктейля (подробные поля не читаются)
+    public static CocktailSummary of(Cocktail c) {
+        return new CocktailSummary(c.getId(), c.getName(), c.getAlcoholBase(), c.getDifficulty(),
+                c.getPreparationTime(), c.getAverageRating(), c.getImageUrl());
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAlcoholBase() {
+        return alcoholBase;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public int getPreparationTime() {
+        return preparationTime;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + difficulty + ", " + preparationTime + " мин)";
+    }
+}
@@ -0,0 +1,35 @@
+package models;
+
+import java.util.List;
+
+/**
+ * Одна страница результата: элементы и курсор, по которому запрашивается следующая.
+ * Курсор непрозрачный — его нужно передать обратно как есть.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor; // null — это последняя страница
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" + items.size() + (nextCursor != null ? ", дальше есть" : ", последняя") + "}";
+    }
+}
@@ -0,0 +1,38 @@
+package models;                                              // Объявление пакета — класс относится к моделям данных приложения
+
+public class Rating {                                        // Публичный класс: одна оценка пользователя, ключ — пара (пользователь, коктейль)
+
+    private final int userId;                                // Поле: ID пользователя, поставившего оценку
+    private final int cocktailId;                            // Поле: ID оценённого коктейля
+    private final int value;                                 // Поле: сама оценка (1–5)
+
+    // Конструктор — создаёт оценку с заданными параметрами
+    public Rating(int userId, int cocktailId, int value) {
+        this.userId = userId;                                // Инициализируем ID пользователя
+        this.cocktailId = cocktailId;                        // Инициализируем ID коктейля
+        this.value = value;                                  // Инициализируем оценку
+    }
+
+    // ===== ГЕТТЕРЫ =====
+
+    // Геттер: возвращает ID пользователя
+    public int getUserId() {
+        return userId;
+    }
+
+    // Геттер: возвращает ID коктейля
+    public int getCocktailId() {
+        return cocktailId;
+    }
+
+    // Геттер: возвращает оценку
+    public int getValue() {
+        return value;
+    }
+
+    // Переопределяем toString() для удобного вывода в логах и отладке
+    @Override
+    public String toString() {
+        return "Rating{userId=" + userId + ", cocktailId=" + cocktailId + ", value=" + value + '}';
+    }
+}
@@ -0,0 +1,36 @@
+package models;
+
+/**
+ * Подсказка при вводе названия: название коктейля или ингредиента и его вес (популярность по рейтингу).
+ */
+public class Suggestion {
+    public enum Kind { COCKTAIL, INGREDIENT }
+
+    private final String text;
+    private final Kind kind;
+    private final double weight; // сумма средних оценок коктейлей с этим названием (ингредиентом)
+
+    public Suggestion(String text, Kind kind, double weight) {
+        this.text = text;
+        this.kind = kind;
+        this.weight = weight;
+    }
+
+    // Getters
+    public String getText() {
+        return text;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.INGREDIENT ? text + " (ингредиент)" : text;
+    }
+}
@@ -0,0 +1,28 @@
+package models;
+
+/**
+ * Результат полнотекстового поиска: коктейль и оценка релевантности (BM25, больше — лучше).
+ */
+public class TextMatch {
+    private final Cocktail cocktail;
+    private final double score; // оценка BM25
+
+    public TextMatch(Cocktail cocktail, double score) {
+        this.cocktail = cocktail;
+        this.score = score;
+    }
+
+    // Getters
+    public Cocktail getCocktail() {
+        return cocktail;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return cocktail + String.format(" (%.2f)", score);
+    }
+}
@@ -0,0 +1,127 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Ingredient;                                     // Импорт модели ингредиента
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Поиск «что можно приготовить из моего бара».
+ *
+ * Каждое различное (нормализованное) название ингредиента получает номер в словаре, а состав коктейля хранится
+ * битовой маской long[] по этим номерам. Запас пользователя — такая же маска; число недостающих ингредиентов
+ * коктейля — popcount(маска коктейля AND NOT маска запаса). Проверка одного коктейля — несколько машинных
+ * слов вместо вложенного перебора ингредиентов и запаса.
+ */
+public class BarQueryEngine {                                // Публичный класс движка
+
+    private final Map<String, Integer> codes;                // Поле: название ингредиента → номер бита
+    private final List<String> names;                        // Поле: номер бита → название
+    private final Map<Integer, Integer> slots;               // Поле: ID коктейля → ячейка в массивах ниже
+    private int[] slotIds;                                   // Поле: ячейка → ID коктейля
+    private long[][] slotMasks;                              // Поле: ячейка → маска состава
+    private int size;                                        // Поле: занятые ячейки [0, size)
+
+    public BarQueryEngine() {
+        this.codes = new HashMap<>();
+        this.names = new ArrayList<>();
+        this.slots = new HashMap<>();
+        this.slotIds = new int[16];
+        this.slotMasks = new long[16][];
+    }
+
+    public void add(int id, List<Ingredient> ingredients) {  // Добавляет или заменяет состав коктейля
+        long[] mask = new long[0];
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient.getName() == null) {
+                continue;
+            }
+            int code = codes.computeIfAbsent(IngredientIndex.normalize(ingredient.getName()), name -> {
+                names.add(name);                             // Новое название — следующий бит
+                return names.size() - 1;
+            });
+            if (code / 64 >= mask.length) {
+                mask = Arrays.copyOf(mask, code / 64 + 1);
+            }
+            mask[code / 64] |= 1L << code;
+        }
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            if (size == slotIds.length) {
+                slotIds = Arrays.copyOf(slotIds, size * 2);
+                slotMasks = Arrays.copyOf(slotMasks, size * 2);
+            }
+            slot = size++;
+            slots.put(id, slot);
+            slotIds[slot] = id;
+        }
+        slotMasks[slot] = mask;
+    }
+
+    public void remove(int id) {                             // Убирает коктейль: на его место переносится последний
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            slotIds[slot] = slotIds[last];
+            slotMasks[slot] = slotMasks[last];
+            slots.put(slotIds[slot], slot);
+        }
+        slotMasks[last] = null;
+    }
+
+    /**
+     * Маска запаса: элемент запаса покрывает все ингредиенты, в названии которых он содержится
+     * ("ром" покрывает и "ром белый", и "ром тёмный")
+     */
+    public long[] inventoryMask(Collection<String> inventory) {
+        long[] mask = new long[(names.size() + 63) / 64];
+        for (String item : inventory) {
+            if (item == null || item.trim().isEmpty()) {
+                continue;
+            }
+            String fragment = IngredientIndex.normalize(item);
+            for (int code = 0; code < names.size(); code++) {  // Словарь невелик — перебираем его, а не коктейли
+                if (names.get(code).contains(fragment)) {
+                    mask[code / 64] |= 1L << code;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Коктейли, которым не хватает не больше maxMissing различных ингредиентов, сгруппированные по числу недостающих:
+     * элемент [m] — ID коктейлей, которым не хватает ровно m (уже упорядочено по недостающим, без сортировки)
+     */
+    public int[][] match(long[] inventory, int maxMissing) {
+        int[][] found = new int[maxMissing + 1][8];
+        int[] counts = new int[maxMissing + 1];
+        for (int slot = 0; slot < size; slot++) {
+            long[] mask = slotMasks[slot];
+            int missing = 0;
+            for (int word = 0; word < mask.length && missing <= maxMissing; word++) {
+                long have = word < inventory.length ? inventory[word] : 0;
+                missing += Long.bitCount(mask[word] & ~have);  // Биты состава, которых нет в запасе
+            }
+            if (missing <= maxMissing) {
+                if (counts[missing] == found[missing].length) {
+                    found[missing] = Arrays.copyOf(found[missing], counts[missing] * 2);
+                }
+                found[missing][counts[missing]++] = slotIds[slot];
+            }
+        }
+        for (int m = 0; m <= maxMissing; m++) {
+            found[m] = Arrays.copyOf(found[m], counts[m]);
+        }
+        return found;
+    }
+
+    /**
+     * Покрыт ли ингредиент маской запаса
+     */
+    public boolean covers(long[] inventory, String ingredientName) {
+        Integer code = codes.get(IngredientIndex.normalize(ingredientName));
+        return code != null && code / 64 < inventory.length && (inventory[code / 64] & (1L << code)) != 0;
+    }
+}
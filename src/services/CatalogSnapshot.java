@@ -0,0 +1,62 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.User;                                          // Импорт модели пользователя
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Неизменяемый снимок каталога для чтения: списки коктейлей и пользователей на один момент времени.
+ *
+ * Хранилище подменяет снимок целиком (одной записью в volatile-поле), поэтому читатель получает его без блокировки
+ * и без копирования, а перебор, начатый по снимку, не видит изменений, сделанных посреди него. Объекты коктейлей и
+ * пользователей общие с хранилищем: неизменяем состав каталога, а рейтинги и оценки меняются на месте, как и раньше.
+ */
+public final class CatalogSnapshot {                         // Неизменяемый снимок
+
+    private final long version;                              // Поле: номер снимка — растёт с каждой публикацией
+    private final List<Cocktail> cocktails;                  // Поле: коктейли в порядке хранения (только чтение)
+    private final List<User> users;                          // Поле: пользователи в порядке хранения (только чтение)
+
+    private CatalogSnapshot(long version, List<Cocktail> cocktails, List<User> users) {
+        this.version = version;
+        this.cocktails = cocktails;
+        this.users = users;
+    }
+
+    /**
+     * Снимок из копий списков (сами списки хранилища дальше могут меняться)
+     */
+    public static CatalogSnapshot of(long version, List<Cocktail> cocktails, List<User> users) {
+        return new CatalogSnapshot(version, freeze(cocktails), freeze(users));
+    }
+
+    /**
+     * Следующий снимок, в котором заменены только коктейли; список пользователей переходит в него без копирования
+     */
+    public CatalogSnapshot withCocktails(long version, List<Cocktail> cocktails) {
+        return new CatalogSnapshot(version, freeze(cocktails), users);
+    }
+
+    /**
+     * Следующий снимок, в котором заменены только пользователи
+     */
+    public CatalogSnapshot withUsers(long version, List<User> users) {
+        return new CatalogSnapshot(version, cocktails, freeze(users));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Cocktail> getCocktails() {                   // Неизменяемый список — без копии
+        return cocktails;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    private static <T> List<T> freeze(List<T> items) {       // Единственная копия — при публикации, а не при каждом чтении
+        return Collections.unmodifiableList(new ArrayList<>(items));
+    }
+}
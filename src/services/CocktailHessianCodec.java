@@ -0,0 +1,67 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.Ingredient;                                     // Импорт модели ингредиента
+import models.PreparationStep;                                // Импорт модели шага приготовления
+import com.caucho.hessian.io.Hessian2Input;                   // Импорт двоичного читателя Hessian 2
+import com.caucho.hessian.io.Hessian2Output;                  // Импорт двоичного писателя Hessian 2
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+
+/**
+ * Двоичное представление Cocktail в формате Hessian 2.
+ * Порядок полей фиксирован: при изменении модели его нужно менять одновременно в write и read.
+ */
+public class CocktailHessianCodec implements HessianRecordCodec<Cocktail> {
+
+    @Override
+    public void write(Hessian2Output out, Cocktail c) throws IOException {  // Записывает коктейль
+        out.writeInt(c.getId());                             // ID
+        out.writeString(c.getName());                        // Название
+        out.writeString(c.getDescription());                 // Описание
+        out.writeString(c.getAlcoholBase());                 // Алкогольная основа
+        out.writeString(c.getDifficulty());                  // Сложность
+        out.writeInt(c.getPreparationTime());                // Время приготовления
+        out.writeString(c.getImageUrl());                    // Путь к изображению
+        out.writeDouble(c.getAverageRating());               // Средний рейтинг
+
+        out.writeInt(c.getIngredients().size());             // Количество ингредиентов
+        for (Ingredient ing : c.getIngredients()) {          // Ингредиенты подряд, без имён полей
+            out.writeString(ing.getName());
+            out.writeDouble(ing.getQuantity());
+            out.writeString(ing.getUnit());
+        }
+
+        out.writeInt(c.getPreparationSteps().size());        // Количество шагов
+        for (PreparationStep step : c.getPreparationSteps()) {
+            out.writeInt(step.getStepNumber());
+            out.writeString(step.getDescription());
+            out.writeString(step.getTips());
+            out.writeInt(step.getDuration());
+        }
+    }
+
+    @Override
+    public Cocktail read(Hessian2Input in) throws IOException {  // Читает коктейль в том же порядке полей
+        Cocktail c = new Cocktail(
+                in.readInt(),                                // ID
+                in.readString(),                             // Название
+                in.readString(),                             // Описание
+                in.readString(),                             // Алкогольная основа
+                in.readString(),                             // Сложность
+                in.readInt(),                                // Время приготовления
+                in.readString()                              // Путь к изображению
+        );
+        c.setAverageRating(in.readDouble());                 // Средний рейтинг
+
+        int ingredientCount = in.readInt();                  // Количество ингредиентов
+        for (int i = 0; i < ingredientCount; i++) {
+            c.addIngredient(new Ingredient(in.readString(), in.readDouble(), in.readString()));
+        }
+
+        int stepCount = in.readInt();                        // Количество шагов
+        for (int i = 0; i < stepCount; i++) {
+            c.addPreparationStep(new PreparationStep(in.readInt(), in.readString(), in.readString(), in.readInt()));
+        }
+        return c;
+    }
+}
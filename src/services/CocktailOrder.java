@@ -0,0 +1,26 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import java.util.Comparator;                                  // Импорт компаратора
+
+/**
+ * Порядок сортировки списка коктейлей.
+ * При равенстве основного ключа коктейли упорядочиваются по ID — так порядок одинаков во всех хранилищах.
+ */
+public enum CocktailOrder {                                  // Перечисление порядков сортировки
+
+    DIFFICULTY(Comparator.comparing(Cocktail::getDifficulty, Comparator.nullsFirst(Comparator.naturalOrder()))),  // По сложности (по алфавиту)
+    PREPARATION_TIME(Comparator.comparingInt(Cocktail::getPreparationTime)),  // По времени приготовления (быстрые сверху)
+    RATING(Comparator.comparingDouble(Cocktail::getAverageRating).reversed());  // По среднему рейтингу (лучшие сверху)
+
+    private final Comparator<Cocktail> comparator;           // Поле: компаратор с добавленным сравнением по ID
+
+    CocktailOrder(Comparator<Cocktail> primary) {
+        this.comparator = primary.thenComparingInt(Cocktail::getId);
+    }
+
+    // Возвращает компаратор для сортировки в памяти
+    public Comparator<Cocktail> comparator() {
+        return comparator;
+    }
+}
@@ -1,16 +1,17 @@
 package services;                                            // Объявление пакета — класс относится к сервисам бизнес-логики
 
 import models.Cocktail;                                      // Импорт модели коктейля
+import models.CocktailSummary;                               // Импорт краткого представления коктейля
+import models.Page;                                          // Импорт страницы результата
 import java.util.*;                                          // Импорт всех коллекций и утилит Java (List, Comparator и др.)
-import java.util.stream.Collectors;                          // Импорт Collectors для сбора результатов Stream в список
 
 public class CocktailService {                               // Публичный класс-сервис для работы с коктейлями
 
-    private DatabaseService databaseService;                // Поле: зависимость от сервиса, который работает с JSON-файлами
+    private DataRepository databaseService;                 // Поле: зависимость от хранилища (JSON-файлы, память или SQL)
 
-    // Конструктор — внедряет зависимость DatabaseService (внедрение зависимостей)
-    public CocktailService(DatabaseService databaseService) {
-        this.databaseService = databaseService;              // Сохраняем ссылку на сервис базы данных
+    // Конструктор — внедряет зависимость от хранилища (внедрение зависимостей)
+    public CocktailService(DataRepository databaseService) {
+        this.databaseService = databaseService;              // Сохраняем ссылку на хранилище
     }
 
     // Возвращает полный список всех коктейлей
@@ -18,6 +19,21 @@ public class CocktailService {                               // Публичны
         return databaseService.getAllCocktails();            // Делегируем вызов в DatabaseService
     }
 
+    // Возвращает краткие представления всех коктейлей (для списка) — подробности загружаются по ID
+    public List<CocktailSummary> getCocktailSummaries() {
+        return databaseService.getCocktailSummaries();       // Делегируем вызов в хранилище
+    }
+
+    // Страница всех коктейлей (курсор null — первая): копируется только она, а не весь каталог
+    public Page<Cocktail> getAllCocktails(String cursor, int limit) {
+        return PageCursor.allCocktails(databaseService, cursor, limit);
+    }
+
+    // Страница кратких представлений
+    public Page<CocktailSummary> getCocktailSummaries(String cursor, int limit) {
+        return PageCursor.slice(databaseService.getCocktailSummaries(), cursor, limit);
+    }
+
     // Находит коктейль по его уникальному ID
     public Cocktail getCocktailById(int id) {
         return databaseService.getCocktailById(id);          // Делегируем поиск в DatabaseService
@@ -43,56 +59,104 @@ public class CocktailService {                               // Публичны
 
     // Генерирует следующий доступный ID для нового коктейля
     public int getNextCocktailId() {
-        return databaseService.getAllCocktails().stream()    // Получаем поток всех коктейлей
-                .mapToInt(Cocktail::getId)                   // Преобразуем в поток ID (int)
-                .max()                                       // Находим максимальный ID
-                .orElse(0)                                   // Если коктейлей нет — возвращаем 0
-                + 1;                                         // Увеличиваем на 1 — это будет новый ID
+        return databaseService.getNextCocktailId();          // Хранилище знает максимальный ID (SQL — через MAX(id))
     }
 
     // ===== МЕТОДЫ СОРТИРОВКИ =====
 
     // Сортирует все коктейли по сложности (по алфавиту: EASY → MEDIUM → HARD)
     public List<Cocktail> sortByDifficulty() {
-        return databaseService.getAllCocktails().stream()    // Берём поток коктейлей
-                .sorted(Comparator.comparing(Cocktail::getDifficulty))  // Сортируем по сложности
-                .collect(Collectors.toList());               // Собираем результат в список
+        return databaseService.getCocktailsSorted(CocktailOrder.DIFFICULTY);  // Сортировку выполняет хранилище
     }
 
     // Сортирует коктейли по времени приготовления (от меньшего к большему)
     public List<Cocktail> sortByPreparationTime() {
-        return databaseService.getAllCocktails().stream()
-                .sorted(Comparator.comparingInt(Cocktail::getPreparationTime))  // Сортировка по времени (int)
-                .collect(Collectors.toList());
+        return databaseService.getCocktailsSorted(CocktailOrder.PREPARATION_TIME);
     }
 
     // Сортирует коктейли по среднему рейтингу (от большего к меньшему — лучшие сверху)
     public List<Cocktail> sortByRating() {
-        return databaseService.getAllCocktails().stream()
-                .sorted((c1, c2) -> Double.compare(c2.getAverageRating(), c1.getAverageRating()))  // Обратная сортировка по рейтингу
-                .collect(Collectors.toList());
+        return databaseService.getCocktailsSorted(CocktailOrder.RATING);  // Обратная сортировка по рейтингу
+    }
+
+    // Постраничные варианты: следующая страница продолжается после последнего коктейля предыдущей
+    public Page<Cocktail> sortByDifficulty(String cursor, int limit) {
+        return sortedPage(CocktailOrder.DIFFICULTY, cursor, limit);
+    }
+
+    public Page<Cocktail> sortByPreparationTime(String cursor, int limit) {
+        return sortedPage(CocktailOrder.PREPARATION_TIME, cursor, limit);
+    }
+
+    public Page<Cocktail> sortByRating(String cursor, int limit) {
+        return sortedPage(CocktailOrder.RATING, cursor, limit);
+    }
+
+    // k лучших по рейтингу — без сортировки всего каталога (куча из k элементов или готовый порядок хранилища)
+    public List<Cocktail> getTopRated(int k) {
+        return databaseService.getCocktailsSorted(CocktailOrder.RATING, 0, k);
+    }
+
+    public Page<Cocktail> sortedPage(CocktailOrder order, String cursor, int limit) {
+        PageCursor.checkLimit(limit);
+        int fetch = limit == Integer.MAX_VALUE ? limit : limit + 1;  // Лишний коктейль — признак, что дальше что-то есть
+        Cocktail after = PageCursor.after(cursor, order);
+        List<Cocktail> fetched = after == null
+                ? databaseService.getCocktailsSorted(order, 0, fetch)
+                : databaseService.getCocktailsSortedAfter(order, after, fetch);
+        return PageCursor.keyset(fetched, limit, order);
+    }
+
+    // Страница отсортированного каталога: не больше limit коктейлей начиная с позиции offset
+    public List<Cocktail> getSortedPage(CocktailOrder order, int offset, int limit) {
+        return databaseService.getCocktailsSorted(order, offset, limit);  // В памяти — без сортировки всего каталога
     }
 
     // ===== МЕТОДЫ ФИЛЬТРАЦИИ =====
 
     // Фильтрует коктейли по уровню сложности (регистронезависимо)
     public List<Cocktail> filterByDifficulty(String difficulty) {
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> c.getDifficulty().equalsIgnoreCase(difficulty))  // Сравниваем без учёта регистра
-                .collect(Collectors.toList());
+        return databaseService.findCocktails(null, null, difficulty);  // Сравнение без учёта регистра
     }
 
     // Фильтрует коктейли по алкогольной основе (регистронезависимо)
     public List<Cocktail> filterByAlcoholBase(String alcoholBase) {
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> c.getAlcoholBase().equalsIgnoreCase(alcoholBase))
-                .collect(Collectors.toList());
+        return databaseService.findCocktails(null, alcoholBase, null);
     }
 
     // Фильтрует коктейли, которые готовятся не дольше указанного времени (в минутах)
     public List<Cocktail> filterByMaxPreparationTime(int maxTime) {
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> c.getPreparationTime() <= maxTime)  // Оставляем только быстрые в приготовлении
-                .collect(Collectors.toList());
+        return databaseService.findCocktailsByMaxPreparationTime(maxTime);  // Только быстрые в приготовлении
+    }
+
+    // Фильтрует коктейли со временем приготовления от min до max минут включительно (по индексу, без перебора)
+    public List<Cocktail> filterByPreparationTime(int min, int max) {
+        return databaseService.findCocktails(null, null, null, TimeRange.between(min, max), null);
+    }
+
+    // Фильтрует коктейли, у которых шаги рецепта в сумме занимают от min до max минут (секунды шагов округляются вверх)
+    public List<Cocktail> filterByTotalStepDuration(int min, int max) {
+        return databaseService.findCocktails(null, null, null, null, TimeRange.between(min, max));
+    }
+
+    // Постраничные варианты фильтров
+    public Page<Cocktail> filterByDifficulty(String difficulty, String cursor, int limit) {
+        return PageCursor.slice(filterByDifficulty(difficulty), cursor, limit);
+    }
+
+    public Page<Cocktail> filterByAlcoholBase(String alcoholBase, String cursor, int limit) {
+        return PageCursor.slice(filterByAlcoholBase(alcoholBase), cursor, limit);
+    }
+
+    public Page<Cocktail> filterByMaxPreparationTime(int maxTime, String cursor, int limit) {
+        return PageCursor.slice(filterByMaxPreparationTime(maxTime), cursor, limit);
+    }
+
+    public Page<Cocktail> filterByPreparationTime(int min, int max, String cursor, int limit) {
+        return PageCursor.slice(filterByPreparationTime(min, max), cursor, limit);
+    }
+
+    public Page<Cocktail> filterByTotalStepDuration(int min, int max, String cursor, int limit) {
+        return PageCursor.slice(filterByTotalStepDuration(min, max), cursor, limit);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,149 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.Ingredient;                                     // Импорт модели ингредиента
+import models.PreparationStep;                                // Импорт модели шага приготовления
+import com.google.gson.TypeAdapter;                           // Импорт базового класса потокового адаптера Gson
+import com.google.gson.stream.JsonReader;                     // Импорт потокового читателя JSON (токен за токеном)
+import com.google.gson.stream.JsonToken;                      // Импорт типов токенов JSON
+import com.google.gson.stream.JsonWriter;                     // Импорт потокового писателя JSON
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+import java.util.ArrayList;                                   // Импорт реализации списка
+import java.util.List;                                        // Импорт интерфейса List
+
+/**
+ * Потоковое преобразование Cocktail ↔ JSON.
+ * Объект строится прямо из токенов JsonReader — без промежуточного дерева JsonObject,
+ * поэтому при загрузке большого каталога в памяти одновременно находится только один коктейль.
+ */
+public class CocktailTypeAdapter extends TypeAdapter<Cocktail> {  // Адаптер Gson для модели коктейля
+
+    @Override
+    public void write(JsonWriter out, Cocktail c) throws IOException {  // Записывает коктейль в поток JSON
+        out.beginObject();                                   // {
+        out.name("id").value(c.getId());                     // ID
+        out.name("name").value(c.getName());                 // Название
+        out.name("description").value(c.getDescription());  // Описание
+        out.name("alcoholBase").value(c.getAlcoholBase());  // Алкогольная основа
+        out.name("difficulty").value(c.getDifficulty());    // Сложность
+        out.name("preparationTime").value(c.getPreparationTime());  // Время приготовления
+        out.name("imageUrl").value(c.getImageUrl());        // Путь к изображению
+        out.name("averageRating").value(c.getAverageRating());  // Средний рейтинг
+
+        out.name("ingredients").beginArray();                // Массив ингредиентов
+        for (Ingredient ing : c.getIngredients()) {          // Проходим по всем ингредиентам
+            out.beginObject();
+            out.name("name").value(ing.getName());           // Название
+            out.name("quantity").value(ing.getQuantity());   // Количество
+            out.name("unit").value(ing.getUnit());           // Единица измерения
+            out.endObject();
+        }
+        out.endArray();
+
+        out.name("preparationSteps").beginArray();           // Массив шагов
+        for (PreparationStep step : c.getPreparationSteps()) {  // Проходим по шагам
+            out.beginObject();
+            out.name("stepNumber").value(step.getStepNumber());
+            out.name("description").value(step.getDescription());
+            out.name("tips").value(step.getTips());
+            out.name("duration").value(step.getDuration());
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();                                     // }
+    }
+
+    @Override
+    public Cocktail read(JsonReader in) throws IOException { // Читает один коктейль из потока JSON
+        int id = 0;                                          // Значения полей накапливаем в локальных переменных,
+        String name = null;                                  // так как порядок полей в файле может быть любым,
+        String description = null;                           // а конструктору нужны все сразу
+        String alcoholBase = null;
+        String difficulty = null;
+        int preparationTime = 0;
+        String imageUrl = null;
+        double averageRating = 0;
+        List<Ingredient> ingredients = new ArrayList<>();
+        List<PreparationStep> steps = new ArrayList<>();
+
+        in.beginObject();                                    // {
+        while (in.hasNext()) {                               // Проходим по всем полям объекта
+            switch (in.nextName()) {                         // Выбираем поле по имени
+                case "id": id = in.nextInt(); break;
+                case "name": name = nextString(in); break;
+                case "description": description = nextString(in); break;
+                case "alcoholBase": alcoholBase = nextString(in); break;
+                case "difficulty": difficulty = nextString(in); break;
+                case "preparationTime": preparationTime = in.nextInt(); break;
+                case "imageUrl": imageUrl = nextString(in); break;
+                case "averageRating": averageRating = in.nextDouble(); break;
+                case "ingredients":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        ingredients.add(readIngredient(in)); // Ингредиент читаем сразу в объект
+                    }
+                    in.endArray();
+                    break;
+                case "preparationSteps":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        steps.add(readStep(in));             // Шаг читаем сразу в объект
+                    }
+                    in.endArray();
+                    break;
+                default: in.skipValue();                     // Неизвестные поля пропускаем
+            }
+        }
+        in.endObject();                                      // }
+
+        Cocktail c = new Cocktail(id, name, description, alcoholBase, difficulty, preparationTime, imageUrl);
+        ingredients.forEach(c::addIngredient);               // Переносим ингредиенты в коктейль
+        steps.forEach(c::addPreparationStep);                // Переносим шаги
+        c.setAverageRating(averageRating);                   // Устанавливаем средний рейтинг
+        return c;                                            // Возвращаем готовый объект
+    }
+
+    private Ingredient readIngredient(JsonReader in) throws IOException {  // Читает один ингредиент
+        String name = null;
+        double quantity = 0;
+        String unit = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name": name = nextString(in); break;
+                case "quantity": quantity = in.nextDouble(); break;
+                case "unit": unit = nextString(in); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Ingredient(name, quantity, unit);
+    }
+
+    private PreparationStep readStep(JsonReader in) throws IOException {  // Читает один шаг приготовления
+        int stepNumber = 0;
+        String description = null;
+        String tips = null;
+        int duration = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "stepNumber": stepNumber = in.nextInt(); break;
+                case "description": description = nextString(in); break;
+                case "tips": tips = nextString(in); break;
+                case "duration": duration = in.nextInt(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new PreparationStep(stepNumber, description, tips, duration);
+    }
+
+    static String nextString(JsonReader in) throws IOException {  // Читает строку; JSON null превращается в null
+        if (in.peek() == JsonToken.NULL) {                   // Значение явно null
+            in.nextNull();                                   // Поглощаем токен
+            return null;
+        }
+        return in.nextString();                              // Обычная строка
+    }
+}
@@ -0,0 +1,374 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.BarMatch;                                      // Импорт результата поиска по запасу бара
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.CocktailSummary;                               // Импорт краткого представления коктейля
+import models.Ingredient;                                    // Импорт модели ингредиента
+import models.Suggestion;                                    // Импорт подсказки при вводе
+import models.TextMatch;                                     // Импорт результата полнотекстового поиска
+import models.User;                                          // Импорт модели пользователя
+import utils.TopK;                                           // Импорт отбора первых k без полной сортировки
+import java.util.*;                                          // Импорт коллекций
+import java.util.stream.Collectors;                          // Импорт Collectors для сбора результатов Stream
+
+/**
+ * Хранилище коктейлей, пользователей и оценок — то, от чего зависят сервисы.
+ * Реализации: DatabaseService (файлы JSON/Hessian с журналом), InMemoryRepository (только память — для тестов
+ * и замеров), JdbcRepository (встроенная SQL-база в файле).
+ *
+ * Методы поиска и сортировки по умолчанию перебирают getAllCocktails(); хранилище, умеющее выполнять их
+ * само (например, индексированным SQL-запросом), переопределяет их.
+ */
+public interface DataRepository {
+
+    // ===== КОКТЕЙЛИ =====
+
+    List<Cocktail> getAllCocktails();                        // Все коктейли; список может быть только для чтения — изменять копию
+
+    Cocktail getCocktailById(int id);                        // Коктейль по ID (null — если нет)
+
+    void addCocktail(Cocktail cocktail);                     // Добавляет коктейль (или заменяет с тем же ID)
+
+    void updateCocktail(Cocktail cocktail);                  // Заменяет существующий коктейль с тем же ID
+
+    void deleteCocktail(int id);                             // Удаляет коктейль по ID
+
+    /**
+     * Краткие представления всех коктейлей (для списков) — без описания, ингредиентов и шагов
+     */
+    default List<CocktailSummary> getCocktailSummaries() {
+        return getAllCocktails().stream().map(CocktailSummary::of).collect(Collectors.toList());
+    }
+
+    // ===== ПОЛЬЗОВАТЕЛИ И ОЦЕНКИ =====
+
+    List<User> getAllUsers();                                // Все пользователи; список может быть только для чтения
+
+    User getUserById(int id);                                // Пользователь по ID (null — если нет)
+
+    User getUserByUsername(String username);                 // Пользователь по имени (null — если нет)
+
+    void addUser(User user);                                 // Добавляет пользователя
+
+    void updateUser(User user);                              // Обновляет профиль пользователя
+
+    void deleteUser(int id);                                 // Удаляет пользователя вместе с его оценками
+
+    void saveUserRating(int userId, int cocktailId, int rating);  // Ставит или меняет оценку
+
+    Integer getUserRating(int userId, int cocktailId);       // Оценка пользователя (null — если не оценивал)
+
+    /**
+     * Сверяет средние рейтинги коктейлей с самими оценками и исправляет расхождения.
+     * Возвращает число исправленных коктейлей; по умолчанию средние не хранятся отдельно и сверять нечего
+     */
+    default int reconcileRatings() {
+        return 0;
+    }
+
+    // ===== ПОИСК И СОРТИРОВКА =====
+
+    /**
+     * Коктейли, подходящие под все заданные условия; null или пустая строка — условие не задано
+     * @param nameFragment подстрока названия (без учёта регистра)
+     * @param alcoholBase алкогольная основа (точно, без учёта регистра)
+     * @param difficulty сложность (точно, без учёта регистра)
+     */
+    default List<Cocktail> findCocktails(String nameFragment, String alcoholBase, String difficulty) {
+        return findCocktails(nameFragment, alcoholBase, difficulty, null, null);
+    }
+
+    /**
+     * То же с диапазонами времени; null — диапазон не задан
+     * @param preparationTime время приготовления (getPreparationTime)
+     * @param stepsDuration суммарная длительность шагов в минутах (getTotalStepDuration)
+     */
+    default List<Cocktail> findCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                         TimeRange preparationTime, TimeRange stepsDuration) {
+        String lowerName = isBlank(nameFragment) ? null : nameFragment.toLowerCase();
+        return getAllCocktails().stream()
+                .filter(c -> lowerName == null || (c.getName() != null && c.getName().toLowerCase().contains(lowerName)))
+                .filter(c -> isBlank(alcoholBase) || alcoholBase.equalsIgnoreCase(c.getAlcoholBase()))
+                .filter(c -> isBlank(difficulty) || difficulty.equalsIgnoreCase(c.getDifficulty()))
+                .filter(c -> preparationTime == null || preparationTime.contains(c.getPreparationTime()))
+                .filter(c -> stepsDuration == null || stepsDuration.contains(c.getTotalStepDuration()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * То же, что findCocktails, но в кратком представлении
+     */
+    default List<CocktailSummary> findCocktailSummaries(String nameFragment, String alcoholBase, String difficulty) {
+        return findCocktailSummaries(nameFragment, alcoholBase, difficulty, null, null);
+    }
+
+    default List<CocktailSummary> findCocktailSummaries(String nameFragment, String alcoholBase, String difficulty,
+                                                        TimeRange preparationTime, TimeRange stepsDuration) {
+        return findCocktails(nameFragment, alcoholBase, difficulty, preparationTime, stepsDuration).stream()
+                .map(CocktailSummary::of)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Как будет выполнен findCocktails с этими условиями — для диагностики
+     */
+    default String explainFindCocktails(String nameFragment, String alcoholBase, String difficulty) {
+        return explainFindCocktails(nameFragment, alcoholBase, difficulty, null, null);
+    }
+
+    default String explainFindCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                        TimeRange preparationTime, TimeRange stepsDuration) {
+        return "Полный перебор getAllCocktails() с проверкой всех условий на каждом коктейле\n";
+    }
+
+    /**
+     * Коктейли, у которых название хотя бы одного ингредиента содержит подстроку (без учёта регистра).
+     * Подстрока и названия сравниваются после IngredientIndex.normalize (обрезка и схлопывание пробелов);
+     * пустая после этого подстрока подходит любому коктейлю, у которого есть хотя бы один названный ингредиент
+     */
+    default List<Cocktail> findCocktailsByIngredient(String ingredientFragment) {
+        String query = IngredientIndex.normalize(ingredientFragment);
+        return getAllCocktails().stream()
+                .filter(c -> c.getIngredients().stream()
+                        .anyMatch(ing -> ing.getName() != null && IngredientIndex.normalize(ing.getName()).contains(query)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Коктейли, подходящие под запрос по нескольким ингредиентам, например "лайм AND ром NOT сахар"
+     * (синтаксис — в IngredientQuery)
+     * @throws IllegalArgumentException если в запросе ошибка
+     */
+    default List<Cocktail> findCocktailsByIngredients(String query) {
+        IngredientQuery parsed = IngredientQuery.parse(query);
+        return getAllCocktails().stream()
+                .filter(c -> parsed.matches(term -> c.getIngredients().stream()
+                        .anyMatch(ing -> ing.getName() != null && IngredientIndex.normalize(ing.getName()).contains(term))))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Коктейли, в названии которых есть слово не дальше maxDistance правок (вставка, удаление, замена символа)
+     * от запроса; сначала ближайшие, при равном расстоянии — в порядке списка.
+     * Регистр, «ё»/«е» и латинские буквы-двойники в кириллических словах не различаются
+     */
+    default List<Cocktail> findCocktailsFuzzy(String query, int maxDistance) {
+        String normalized = FuzzyNameIndex.normalize(query);
+        List<Cocktail> matches = new ArrayList<>();
+        Map<Integer, Integer> distances = new HashMap<>();
+        if (normalized.isEmpty()) {
+            return matches;
+        }
+        for (Cocktail c : getAllCocktails()) {
+            if (c.getName() == null) {
+                continue;
+            }
+            int distance = FuzzyNameIndex.nameDistance(normalized, c.getName());
+            if (distance <= maxDistance) {
+                matches.add(c);
+                distances.put(c.getId(), distance);
+            }
+        }
+        matches.sort(Comparator.comparingInt(c -> distances.get(c.getId())));  // Сортировка устойчивая — внутри группы порядок списка
+        return matches;
+    }
+
+    /**
+     * Подсказки при вводе: не больше limit названий коктейлей и limit названий ингредиентов, начало которых
+     * (или начало одного из слов) совпадает с prefix; выше — с большей суммой средних оценок.
+     * По умолчанию словарь строится заново при каждом вызове — хранилища с постоянным индексом переопределяют метод
+     */
+    default List<Suggestion> suggest(String prefix, int limit) {
+        return TypeaheadIndex.of(getAllCocktails()).suggest(prefix, limit);
+    }
+
+    /**
+     * Полнотекстовый поиск по описанию, шагам и советам: не больше limit коктейлей по убыванию BM25.
+     * Слова приводятся к основе («белком» → «белок»), часть запроса в кавычках ищется фразой.
+     * По умолчанию индекс строится заново при каждом вызове — хранилища с постоянным индексом переопределяют метод
+     */
+    default List<TextMatch> searchText(String query, int limit) {
+        FullTextIndex index = new FullTextIndex();
+        Map<Integer, Cocktail> byId = new HashMap<>();
+        for (Cocktail c : getAllCocktails()) {
+            index.add(c.getId(), FullTextIndex.fieldsOf(c));
+            byId.put(c.getId(), c);
+        }
+        List<TextMatch> matches = new ArrayList<>();
+        for (FullTextIndex.Hit hit : index.search(query, limit)) {
+            matches.add(new TextMatch(byId.get(hit.getId()), hit.getScore()));
+        }
+        return matches;
+    }
+
+    /**
+     * Коктейли, которые можно приготовить из запаса бара, или которым не хватает не больше maxMissing
+     * различных ингредиентов; сначала те, которым не хватает меньше.
+     * Элемент запаса покрывает ингредиент, если содержится в его названии ("ром" покрывает "Ром белый").
+     */
+    default List<BarMatch> findCocktailsForBar(Collection<String> inventory, int maxMissing) {
+        List<String> items = new ArrayList<>();
+        for (String item : inventory) {
+            if (item != null && !item.trim().isEmpty()) {
+                items.add(IngredientIndex.normalize(item));
+            }
+        }
+        List<BarMatch> matches = new ArrayList<>();
+        for (Cocktail c : getAllCocktails()) {
+            List<Ingredient> missing = new ArrayList<>();
+            Set<String> missingNames = new HashSet<>();      // Повторы одного ингредиента считаем один раз
+            for (Ingredient ing : c.getIngredients()) {
+                if (ing.getName() == null) {
+                    continue;
+                }
+                String name = IngredientIndex.normalize(ing.getName());
+                if (items.stream().noneMatch(name::contains)) {
+                    missing.add(ing);
+                    missingNames.add(name);
+                }
+            }
+            if (missingNames.size() <= maxMissing) {
+                matches.add(new BarMatch(c, missingNames.size(), missing));
+            }
+        }
+        matches.sort(Comparator.comparingInt(BarMatch::getMissingCount));  // Сортировка устойчивая — внутри группы порядок списка
+        return matches;
+    }
+
+    /**
+     * Коктейли, которые готовятся не дольше указанного времени (в минутах)
+     */
+    default List<Cocktail> findCocktailsByMaxPreparationTime(int maxTime) {
+        return findCocktails(null, null, null, TimeRange.atMost(maxTime), null);
+    }
+
+    /**
+     * Все коктейли в заданном порядке
+     */
+    default List<Cocktail> getCocktailsSorted(CocktailOrder order) {
+        List<Cocktail> sorted = new ArrayList<>(getAllCocktails());  // Список хранилища может быть неизменяемым
+        sorted.sort(order.comparator());
+        return sorted;
+    }
+
+    /**
+     * Не больше limit коктейлей в заданном порядке, начиная с позиции offset
+     */
+    default List<Cocktail> getCocktailsSorted(CocktailOrder order, int offset, int limit) {
+        int from = Math.max(offset, 0);
+        List<Cocktail> top = TopK.top(getAllCocktails(), (int) Math.min((long) from + Math.max(limit, 0), Integer.MAX_VALUE),
+                order.comparator());                         // Куча на offset + limit элементов вместо сортировки всего каталога
+        return new ArrayList<>(top.subList(Math.min(from, top.size()), top.size()));
+    }
+
+    /**
+     * Не больше limit коктейлей, следующих в порядке order за ключом after (ID и поле сортировки).
+     * Сам коктейль after в каталоге может уже отсутствовать — важен только его ключ
+     */
+    default List<Cocktail> getCocktailsSortedAfter(CocktailOrder order, Cocktail after, int limit) {
+        List<Cocktail> following = new ArrayList<>();
+        for (Cocktail c : getAllCocktails()) {
+            if (order.comparator().compare(c, after) > 0) {
+                following.add(c);
+            }
+        }
+        return TopK.top(following, limit, order.comparator());
+    }
+
+    /**
+     * Не больше limit коктейлей в порядке хранения, начиная с позиции offset — без копии всего каталога
+     */
+    default List<Cocktail> getCocktailsPage(int offset, int limit) {
+        List<Cocktail> all = getAllCocktails();
+        int from = Math.min(Math.max(offset, 0), all.size());
+        return new ArrayList<>(all.subList(from, (int) Math.min((long) from + Math.max(limit, 0), all.size())));
+    }
+
+    /**
+     * Различные алкогольные основы по алфавиту
+     */
+    default List<String> getAlcoholBases() {
+        return getAllCocktails().stream()
+                .map(Cocktail::getAlcoholBase)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Различные уровни сложности по алфавиту
+     */
+    default List<String> getDifficulties() {
+        return getAllCocktails().stream()
+                .map(Cocktail::getDifficulty)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Алкогольные основы с числом коктейлей у каждой, по алфавиту
+     */
+    default Map<String, Integer> getAlcoholBaseCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Cocktail c : getAllCocktails()) {
+            if (c.getAlcoholBase() != null) {
+                counts.merge(c.getAlcoholBase(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Уровни сложности с числом коктейлей у каждого, по алфавиту
+     */
+    default Map<String, Integer> getDifficultyCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Cocktail c : getAllCocktails()) {
+            if (c.getDifficulty() != null) {
+                counts.merge(c.getDifficulty(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    default int getNextCocktailId() {                        // Следующий свободный ID коктейля
+        return getAllCocktails().stream().mapToInt(Cocktail::getId).max().orElse(0) + 1;
+    }
+
+    default int getNextUserId() {                            // Следующий свободный ID пользователя
+        return getAllUsers().stream().mapToInt(User::getId).max().orElse(0) + 1;
+    }
+
+    /**
+     * Номер версии каталога: увеличивается при каждом изменении коктейлей или оценок, поэтому по нему кэш
+     * результатов поиска узнаёт, что запись устарела. Отрицательное значение — хранилище версии не ведёт
+     * (тогда результаты не кэшируются)
+     */
+    default long getCatalogVersion() {
+        return -1;
+    }
+
+    /**
+     * Неизменяемый снимок каталога — согласованные списки коктейлей и пользователей на один момент.
+     * По умолчанию собирается из getAllCocktails() и getAllUsers() при каждом вызове; хранилище в памяти
+     * публикует его один раз после изменений и отдаёт без копирования
+     */
+    default CatalogSnapshot getSnapshot() {
+        return CatalogSnapshot.of(getCatalogVersion(), getAllCocktails(), getAllUsers());
+    }
+
+    // ===== ЖИЗНЕННЫЙ ЦИКЛ =====
+
+    default void flush() {                                   // Гарантирует, что все изменения уже сохранены (иначе UncheckedIOException)
+    }
+
+    default void shutdown() {                                // Сохраняет всё несохранённое и освобождает ресурсы
+    }
+
+    private static boolean isBlank(String value) {           // Условие не задано
+        return value == null || value.isEmpty();
+    }
+}
@@ -1,326 +1,483 @@
 package services;                                            // Объявление пакета — класс находится в пакете services
 
 import models.Cocktail;                                      // Импорт модели коктейля
-import models.Ingredient;                                     // Импорт модели ингредиента
+import models.Ingredient;                                     // Импорт модели ингредиента (используется в примерах коктейлей)
 import models.PreparationStep;                                // Импорт модели шага приготовления
+import models.Rating;                                         // Импорт модели оценки
 import models.User;                                           // Импорт модели пользователя
 import com.google.gson.*;                                     // Импорт всех классов библиотеки Gson (JsonObject, JsonArray, Gson и т.д.)
 import java.io.*;                                              // Импорт классов для работы с файлами (File, FileReader, FileWriter, BufferedReader и т.д.)
+import java.nio.file.Files;                                   // Импорт утилит для атомарной замены файлов
+import java.nio.file.StandardCopyOption;                      // Импорт опций перемещения файлов (REPLACE_EXISTING, ATOMIC_MOVE)
 import java.util.*;                                          // Импорт всех коллекций Java (List, ArrayList, Map и т.д.)
+import java.util.concurrent.ForkJoinPool;                     // Импорт пула fork-join для параллельного разбора снимка
+
+/**
+ * Хранилище на файлах: данные живут в памяти (InMemoryRepository), изменения пишутся в журнал,
+ * который периодически сворачивается в снимки JSON/Hessian/каталог.
+ */
+public class DatabaseService extends InMemoryRepository {    // Объявление публичного класса — имитация базы данных на JSON-файлах
+
+    private static final String COCKTAILS_SNAPSHOT = "resources/data/cocktails";   // Константа: путь к снимку коктейлей (расширение зависит от формата)
+    private static final String USERS_SNAPSHOT = "resources/data/users";           // Константа: путь к снимку пользователей старого формата (один файл)
+    private static final String USERS_DIRECTORY = "resources/data/users";          // Константа: папка с шардами профилей пользователей
+    private static final String SNAPSHOT_FORMAT_PROPERTY = "cocktails.snapshotFormat";  // Константа: системное свойство с форматом снимков (json/hessian)
+    private static final String LOAD_THREADS_PROPERTY = "cocktails.loadThreads";   // Константа: системное свойство — сколько потоков разбирают JSON-снимок коктейлей
+    private static final String RATINGS_SNAPSHOT = "resources/data/ratings";       // Константа: путь к снимку оценок старого формата (один файл)
+    private static final String RATINGS_DIRECTORY = "resources/data/ratings";      // Константа: папка с шардами оценок (шард определяется ID пользователя)
+    private static final int USER_SHARD_COUNT = 16;                                // Константа: количество шардов пользователей и оценок
+    private static final String JOURNAL_FILE = "resources/data/journal.log";       // Константа: путь к журналу изменений (append-only)
+    private static final int COMPACTION_THRESHOLD = 1000;                          // Константа: после стольких записей журнал сворачивается в снимок
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 500;                 // Константа: как часто фоновый писатель сбрасывает изменения
+    private static final int DEFAULT_FLUSH_BATCH_SIZE = 100;                       // Константа: размер пачки, после которого сброс идёт досрочно
 
-public class DatabaseService {                               // Объявление публичного класса — имитация базы данных на JSON-файлах
-
-    private static final String COCKTAILS_FILE = "resources/data/cocktails.json";  // Константа: путь к файлу с коктейлями
-    private static final String USERS_FILE = "resources/data/users.json";          // Константа: путь к файлу с пользователями
-    private static final String RATINGS_FILE = "resources/data/ratings.json";      // Константа: путь к файлу с оценками (пока не используется отдельно)
-
-    private List<Cocktail> cocktails;                        // Поле: список всех коктейлей, загруженных в память
-    private List<User> users;                                // Поле: список всех пользователей, загруженных в память
     private Gson gson;                                       // Поле: объект Gson для сериализации/десериализации JSON
+    private TypeAdapter<Cocktail> cocktailAdapter;           // Поле: потоковый адаптер коктейлей (JSON ↔ Cocktail без дерева)
+    private TypeAdapter<User> userAdapter;                   // Поле: потоковый адаптер пользователей
+    private SnapshotCodec<Cocktail> cocktailSnapshots;       // Поле: чтение/запись снимка коктейлей (JSON или Hessian)
+    private SnapshotCodec<User> userSnapshots;               // Поле: чтение/запись одного файла пользователей (только профили)
+    private SnapshotCodec<Rating> ratingSnapshots;           // Поле: чтение/запись одного файла оценок (пары пользователь–коктейль)
+    private ShardedSnapshotStore<User> userStore;            // Поле: профили пользователей, разбитые на шарды по ID
+    private ShardedSnapshotStore<Rating> ratingStore;        // Поле: оценки, разбитые на шарды по ID пользователя
+    private volatile SnapshotFormat snapshotFormat;          // Поле: формат, в котором пишутся новые снимки
+    private MutationJournal journal;                         // Поле: журнал изменений, проигрываемый поверх снимков при старте
+    private PersistenceWriter writer;                        // Поле: фоновый писатель — вызывающий поток никогда не ждёт диск
+    private boolean cocktailsDirty;                          // Поле: коктейли менялись после последнего снимка
+    private BitSet dirtyUserShards;                          // Поле: шарды профилей, менявшиеся после последнего снимка
+    private BitSet dirtyRatingShards;                        // Поле: шарды оценок, менявшиеся после последнего снимка
+    private boolean legacyUsers;                             // Поле: пользователи прочитаны из файла старого формата — удалить его после записи шардов
+    private boolean legacyRatings;                           // Поле: то же для оценок
 
     public DatabaseService() {                               // Конструктор класса — вызывается при создании объекта
+        this(DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FLUSH_BATCH_SIZE);  // Используем настройки фоновой записи по умолчанию
+    }
+
+    // Конструктор с настройкой фоновой записи: интервал сброса (мс) и размер пачки
+    public DatabaseService(long flushIntervalMillis, int flushBatchSize) {
         this.gson = new GsonBuilder().setPrettyPrinting().create();  // Создаём Gson с красивым форматированием (отступы, переносы)
-        this.cocktails = new ArrayList<>();                  // Инициализируем пустой список коктейлей
-        this.users = new ArrayList<>();                      // Инициализируем пустой список пользователей
+        this.cocktailAdapter = new CocktailTypeAdapter();    // Адаптер коктейлей
+        this.userAdapter = new UserTypeAdapter();            // Адаптер пользователей
+        this.cocktailSnapshots = new SnapshotCodec<>(gson, cocktailAdapter, new CocktailHessianCodec());
+        this.userSnapshots = new SnapshotCodec<>(gson, userAdapter, new UserHessianCodec());
+        this.ratingSnapshots = new SnapshotCodec<>(new Gson(), new RatingTypeAdapter(), new RatingHessianCodec());  // Оценок много — пишем без отступов
+        this.userStore = new ShardedSnapshotStore<>(USERS_DIRECTORY, USERS_SNAPSHOT, USER_SHARD_COUNT,
+                userSnapshots, User::getId);
+        this.ratingStore = new ShardedSnapshotStore<>(RATINGS_DIRECTORY, RATINGS_SNAPSHOT, USER_SHARD_COUNT,
+                ratingSnapshots, Rating::getUserId);         // Оценки пользователя лежат в шарде с тем же номером, что и его профиль
+        this.dirtyUserShards = new BitSet(USER_SHARD_COUNT);
+        this.dirtyRatingShards = new BitSet(USER_SHARD_COUNT);
+        this.snapshotFormat = SnapshotFormat.parse(System.getProperty(SNAPSHOT_FORMAT_PROPERTY));  // По умолчанию — JSON
+        this.journal = new MutationJournal(JOURNAL_FILE);    // Создаём журнал изменений
         loadAllData();                                       // Загружаем все данные из файлов при старте приложения
+        this.writer = new PersistenceWriter(journal, this::writeSnapshots, COMPACTION_THRESHOLD,
+                flushIntervalMillis, flushBatchSize);        // Запускаем фоновый писатель после загрузки данных
     }
 
     // ===== ОПЕРАЦИИ С КОКТЕЙЛЯМИ =====
 
-    public List<Cocktail> getAllCocktails() {                // Метод: возвращает копию списка всех коктейлей
-        return new ArrayList<>(cocktails);                   // Возвращаем новый список — защита от изменения оригинала извне
-    }
-
-    public Cocktail getCocktailById(int id) {                // Метод: ищет коктейль по его ID
-        return cocktails.stream()                            // Создаём поток из списка коктейлей
-                .filter(c -> c.getId() == id)                // Оставляем только коктейль с нужным ID
-                .findFirst()                                 // Берём первый найденный (должен быть только один)
-                .orElse(null);                               // Если не найден — возвращаем null
-    }
-
-    public void addCocktail(Cocktail cocktail) {             // Метод: добавляет новый коктейль
-        cocktails.add(cocktail);                             // Добавляем коктейль в список в памяти
-        saveCocktails();                                     // Сохраняем обновлённый список в файл
+    @Override
+    public synchronized void addCocktail(Cocktail cocktail) {             // Метод: добавляет новый коктейль
+        applyPutCocktail(cocktail);                          // Добавляем коктейль в память
+        cocktailsDirty = true;                               // Снимок коктейлей нужно будет переписать
+        appendToJournal("ADD_COCKTAIL", "cocktail", cocktailToJson(cocktail), "cocktail:" + cocktail.getId());  // Дописываем в журнал только этот коктейль
     }
 
-    public void updateCocktail(Cocktail cocktail) {          // Метод: обновляет существующий коктейль
-        for (int i = 0; i < cocktails.size(); i++) {         // Проходим по всему списку коктейлей
-            if (cocktails.get(i).getId() == cocktail.getId()) {  // Если нашли коктейль с таким же ID
-                cocktails.set(i, cocktail);                  // Заменяем старый объект на новый
-                saveCocktails();                             // Сохраняем изменения в файл
-                return;                                      // Выходим из метода — работа завершена
-            }
+    @Override
+    public synchronized void updateCocktail(Cocktail cocktail) {          // Метод: обновляет существующий коктейль
+        if (applyReplaceCocktail(cocktail)) {                // Если коктейль с таким ID найден и заменён
+            cocktailsDirty = true;
+            appendToJournal("UPDATE_COCKTAIL", "cocktail", cocktailToJson(cocktail), "cocktail:" + cocktail.getId());  // Фиксируем изменение в журнале
         }
     }
 
-    public void deleteCocktail(int id) {                     // Метод: удаляет коктейль по ID
-        cocktails.removeIf(c -> c.getId() == id);            // Удаляем все коктейли с указанным ID (должен быть один)
-        saveCocktails();                                     // Сохраняем изменения в файл
+    @Override
+    public synchronized void deleteCocktail(int id) {                     // Метод: удаляет коктейль по ID
+        applyDeleteCocktail(id);                             // Удаляем коктейль из памяти
+        cocktailsDirty = true;
+        appendToJournal("DELETE_COCKTAIL", "id", new JsonPrimitive(id), "cocktail:" + id);  // В журнал пишем только ID
     }
 
     // ===== ОПЕРАЦИИ С ПОЛЬЗОВАТЕЛЯМИ =====
 
-    public List<User> getAllUsers() {                        // Метод: возвращает копию списка всех пользователей
-        return new ArrayList<>(users);                       // Возвращаем новый список для безопасности
+    @Override
+    public synchronized void addUser(User user) {                         // Метод: добавляет нового пользователя
+        applyPutUser(user);                                  // Добавляем в память
+        markUserDirty(user.getId());                         // Меняется только шард с профилем — оценки не трогаем
+        appendToJournal("ADD_USER", "user", userToJson(user), "user:" + user.getId());  // Дописываем в журнал только этого пользователя
     }
 
-    public User getUserById(int id) {                        // Метод: ищет пользователя по ID
-        return users.stream()                                // Создаём поток из списка пользователей
-                .filter(u -> u.getId() == id)                // Оставляем только с нужным ID
-                .findFirst()                                 // Берём первый найденный
-                .orElse(null);                               // Если не найден — возвращаем null
+    @Override
+    public synchronized void updateUser(User user) {                      // Метод: обновляет данные пользователя
+        if (applyReplaceUser(user)) {                        // Если пользователь найден и заменён
+            markUserDirty(user.getId());
+            appendToJournal("UPDATE_USER", "user", userToJson(user), "user:" + user.getId());  // Фиксируем изменение в журнале
+        }
     }
 
-    public User getUserByUsername(String username) {        // Метод: ищет пользователя по имени
-        return users.stream()                                // Создаём поток
-                .filter(u -> u.getUsername().equals(username))  // Сравниваем имя точно
-                .findFirst()                                 // Берём первый найденный
-                .orElse(null);                               // Если не найден — null
+    @Override
+    public synchronized void deleteUser(int id) {                         // Метод: удаляет пользователя по ID
+        applyDeleteUser(id);                                 // Удаляем из памяти
+        markUserDirty(id);
+        markRatingsDirty(id);                                // Вместе с пользователем пропадают и его оценки
+        appendToJournal("DELETE_USER", "id", new JsonPrimitive(id), "user:" + id);  // В журнал пишем только ID
     }
 
-    public void addUser(User user) {                         // Метод: добавляет нового пользователя
-        users.add(user);                                     // Добавляем в список в памяти
-        saveUsers();                                         // Сохраняем в файл
-    }
+    // ===== РАБОТА С ОЦЕНКАМИ =====
 
-    public void updateUser(User user) {                      // Метод: обновляет данные пользователя
-        for (int i = 0; i < users.size(); i++) {             // Проходим по списку
-            if (users.get(i).getId() == user.getId()) {      // Находим пользователя по ID
-                users.set(i, user);                          // Заменяем старые данные на новые
-                saveUsers();                                 // Сохраняем изменения
-                return;                                      // Выходим
-            }
+    @Override
+    public synchronized void saveUserRating(int userId, int cocktailId, int rating) {  // Метод: сохраняет оценку пользователя
+        if (applyRating(userId, cocktailId, rating)) {       // Если пользователь существует и оценка применена
+            markRatingsDirty(userId);                        // Оценка затрагивает только один шард оценок
+            JsonObject record = new JsonObject();            // Запись об оценке — три числа вместо всего пользователя
+            record.addProperty("op", "RATE");
+            record.addProperty("userId", userId);
+            record.addProperty("cocktailId", cocktailId);
+            record.addProperty("rating", rating);
+            writer.submit("rate:" + userId + ":" + cocktailId, record);  // Повторная оценка того же коктейля склеится с прежней
+            // Средний рейтинг отдельно не сохраняется: он выводится из оценок при загрузке (recalculateAverageRatings),
+            // поэтому снимок коктейлей из-за оценки не переписывается
         }
     }
 
-    public void deleteUser(int id) {                         // Метод: удаляет пользователя по ID
-        users.removeIf(u -> u.getId() == id);                // Удаляем из списка
-        saveUsers();                                         // Сохраняем изменения
+    private void markUserDirty(int userId) {                 // Помечает шард профиля пользователя для перезаписи
+        dirtyUserShards.set(userStore.shardOf(userId));
     }
 
-    // ===== РАБОТА С ОЦЕНКАМИ =====
+    private void markRatingsDirty(int userId) {              // Помечает шард оценок пользователя для перезаписи
+        dirtyRatingShards.set(ratingStore.shardOf(userId));
+    }
 
-    public void saveUserRating(int userId, int cocktailId, int rating) {  // Метод: сохраняет оценку пользователя
-        User user = getUserById(userId);                     // Находим пользователя по ID
-        if (user != null) {                                  // Если пользователь существует
-            user.rateCocktail(cocktailId, rating);           // Сохраняем оценку в объекте User
-            updateUser(user);                                // Обновляем пользователя в "БД"
-            updateCocktailAverageRating(cocktailId);         // Пересчитываем средний рейтинг коктейля
-        }
+    // ===== ЖУРНАЛ ИЗМЕНЕНИЙ =====
+
+    private void appendToJournal(String op, String key, JsonElement payload, String entityKey) {  // Ставит запись {"op": ..., key: payload} в очередь
+        JsonObject record = new JsonObject();                // Создаём запись журнала
+        record.addProperty("op", op);                        // Тип операции
+        record.add(key, payload);                            // Данные операции
+        writer.submit(entityKey, record);                    // Фоновый писатель допишет её в журнал вместе с остальной пачкой
     }
 
-    public Integer getUserRating(int userId, int cocktailId) {  // Метод: возвращает оценку пользователя
-        User user = getUserById(userId);                     // Находим пользователя
-        if (user != null) {                                  // Если найден
-            return user.getRatingForCocktail(cocktailId);    // Возвращаем его оценку (может быть null)
+    private void replayRecord(JsonObject record) {           // Применяет одну запись журнала к данным в памяти
+        switch (record.get("op").getAsString()) {            // Выбираем действие по типу операции
+            case "ADD_COCKTAIL":                             // Хранилище помечается «грязным»: после сворачивания журнала
+            case "UPDATE_COCKTAIL":                          // изменение должно остаться в снимке
+                applyPutCocktail(parseCocktail(record.getAsJsonObject("cocktail")));
+                cocktailsDirty = true;
+                break;
+            case "DELETE_COCKTAIL":
+                applyDeleteCocktail(record.get("id").getAsInt());
+                cocktailsDirty = true;
+                break;
+            case "ADD_USER":
+            case "UPDATE_USER":
+                User user = parseUser(record.getAsJsonObject("user"));
+                applyPutUser(user);
+                markUserDirty(user.getId());
+                if (!user.getRatings().isEmpty()) {          // Записи старого формата несут оценки внутри пользователя
+                    markRatingsDirty(user.getId());
+                }
+                break;
+            case "DELETE_USER":
+                applyDeleteUser(record.get("id").getAsInt());
+                markUserDirty(record.get("id").getAsInt());
+                markRatingsDirty(record.get("id").getAsInt());
+                break;
+            case "RATE":
+                applyRating(record.get("userId").getAsInt(),
+                        record.get("cocktailId").getAsInt(),
+                        record.get("rating").getAsInt());
+                markRatingsDirty(record.get("userId").getAsInt());
+                break;
+            default:                                         // Неизвестная операция (например, из более новой версии)
+                System.out.println("Неизвестная операция в журнале: " + record.get("op"));
         }
-        return null;                                         // Пользователь не найден
     }
 
-    private void updateCocktailAverageRating(int cocktailId) {  // Приватный метод: пересчитывает средний рейтинг коктейля
-        double sum = 0;                                      // Сумма всех оценок
-        int count = 0;                                       // Количество оценок
-        for (User user : users) {                            // Проходим по всем пользователям
-            Integer rating = user.getRatingForCocktail(cocktailId);  // Получаем оценку текущего пользователя
-            if (rating != null) {                            // Если оценка есть
-                sum += rating;                               // Добавляем к сумме
-                count++;                                     // Увеличиваем счётчик
-            }
-        }
-        Cocktail cocktail = getCocktailById(cocktailId);     // Находим коктейль
-        if (cocktail != null) {                              // Если коктейль существует
-            cocktail.setAverageRating(count > 0 ? sum / count : 0);  // Устанавливаем средний рейтинг (0, если оценок нет)
-            updateCocktail(cocktail);                        // Сохраняем обновлённый коктейль
-        }
+    /**
+     * Синхронно сбрасывает все накопленные изменения в журнал на диске
+     * (UncheckedIOException — если записать их не удалось и они пока есть только в памяти)
+     */
+    @Override
+    public void flush() {
+        writer.flush();                                      // Ждём, пока фоновый писатель допишет очередь
+    }
+
+    /**
+     * Сворачивает журнал: переписывает снимки изменившихся хранилищ (коктейли, профили, оценки), затем очищает журнал.
+     * Если сбой произойдёт между записью снимков и очисткой, повторное проигрывание безопасно —
+     * все операции журнала идемпотентны.
+     */
+    public void compact() {
+        writer.compact();                                    // Сворачивание выполняется в потоке писателя
+    }
+
+    /**
+     * Останавливает фоновую запись, предварительно сбросив все изменения на диск
+     */
+    @Override
+    public void shutdown() {
+        writer.shutdown();                                   // Сбрасываем очередь и закрываем журнал
     }
 
     // ===== ЗАГРУЗКА И СОХРАНЕНИЕ ДАННЫХ =====
 
     private void loadAllData() {                             // Приватный метод: загружает все данные при старте
         loadCocktails();                                     // Загружаем коктейли
-        loadUsers();                                         // Загружаем пользователей
+        loadUsers();                                         // Загружаем профили пользователей
+        rebuildIndexes();                                    // Списки заполнены напрямую — строим индексы один раз
+        loadRatings();                                       // Загружаем оценки и раскладываем их по пользователям
+        try {
+            journal.replay(this::replayRecord);              // Проигрываем изменения, накопленные после последнего снимка
+        } catch (Exception e) {
+            System.out.println("Ошибка при чтении журнала: " + e.getMessage());
+        }
+        recalculateAverageRatings();                         // Средние рейтинги выводятся из оценок
     }
 
     private void loadCocktails() {                           // Приватный метод: загрузка коктейлей из файла
         try {                                                // Начинаем обработку исключений
-            File file = new File(COCKTAILS_FILE);            // Создаём объект файла
-            if (file.exists()) {                             // Проверяем, существует ли файл
-                String content = readFile(file);             // Читаем содержимое файла в строку
-                JsonArray array = JsonParser.parseString(content).getAsJsonArray();  // Парсим строку как JSON-массив
-                for (JsonElement element : array) {          // Проходим по всем элементам массива
-                    cocktails.add(parseCocktail(element.getAsJsonObject()));  // Преобразуем каждый JSON-объект в Cocktail и добавляем
-                }
-            } else {                                         // Если файла нет
-                initializeSampleCocktails();                 // Создаём начальные данные (примеры коктейлей)
+            File file = locateSnapshot(COCKTAILS_SNAPSHOT);  // Ищем снимок в любом из форматов
+            if (file == null) {                              // Проверяем, существует ли файл
+                initializeSampleCocktails();                 // Если файла нет — создаём начальные данные (примеры коктейлей)
+                return;
+            }
+            List<Cocktail> loaded = new ArrayList<>();       // Читаем во временный список: снимок, испорченный посередине,
+            SnapshotFormat format = SnapshotCodec.detectFormat(file);  // не должен оставить в каталоге половину коктейлей
+            if (format == SnapshotFormat.MAPPED) {           // Каталог, отображаемый в память
+                MappedCatalog.open(file, loaded::add);       // Читаются только краткие поля, подробности — по требованию
+            } else if (format == SnapshotFormat.JSON && loadThreads() > 1
+                    && ParallelJsonArrayReader.supports(file)) {  // Большой JSON разбираем кусками в несколько потоков
+                loaded.addAll(readCocktailsParallel(file, loadThreads()));
+            } else {
+                cocktailSnapshots.read(file, loaded::add);   // Формат определяется по содержимому; коктейли добавляются по одному
             }
+            cocktails.addAll(loaded);                        // Снимок прочитан целиком — переносим в каталог
         } catch (Exception e) {                              // Ловим любые ошибки при загрузке
             System.out.println("Ошибка при загрузке коктейлей: " + e.getMessage());  // Выводим сообщение в консоль
             initializeSampleCocktails();                     // При любой ошибке — создаём примеры
         }
     }
 
+    private int loadThreads() {                              // Число потоков разбора JSON (по умолчанию — по числу ядер)
+        String value = System.getProperty(LOAD_THREADS_PROPERTY);
+        if (value == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            System.out.println("Неверное значение " + LOAD_THREADS_PROPERTY + ": " + value);
+            return 1;                                        // Безопасный вариант — последовательное чтение
+        }
+    }
+
+    private List<Cocktail> readCocktailsParallel(File file, int threads) throws IOException {  // Разбор JSON-снимка задачами fork-join
+        ParallelJsonArrayReader<Cocktail> reader = new ParallelJsonArrayReader<>(gson, cocktailAdapter);
+        Comparator<Cocktail> byId = Comparator.comparingInt(Cocktail::getId);  // Порядок как при последовательном чтении упорядоченного файла
+        if (System.getProperty(LOAD_THREADS_PROPERTY) == null) {  // Число потоков не задано — общий пул
+            return reader.read(file, ForkJoinPool.commonPool(), byId);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);       // Явно заданное число потоков — отдельный пул
+        try {
+            return reader.read(file, pool, byId);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     private void loadUsers() {                               // Приватный метод: загрузка пользователей
         try {
-            File file = new File(USERS_FILE);
-            if (file.exists()) {
-                String content = readFile(file);
-                JsonArray array = JsonParser.parseString(content).getAsJsonArray();
-                for (JsonElement element : array) {
-                    users.add(parseUser(element.getAsJsonObject()));
+            if (userStore.hasShards()) {                     // Шарды читаются параллельно
+                users.addAll(userStore.loadShards(Runtime.getRuntime().availableProcessors()));
+            } else {
+                File legacy = userStore.locateLegacy();      // Один файл старого формата
+                if (legacy != null) {
+                    userSnapshots.read(legacy, users::add);  // Потоково читаем пользователей
+                    legacyUsers = true;                      // При ближайшем сворачивании разложим по шардам
+                    dirtyUserShards.set(0, USER_SHARD_COUNT);
                 }
             }
+            users.sort(Comparator.comparingInt(User::getId));  // Порядок не зависит от того, в каком шарде лежит пользователь
         } catch (Exception e) {
             System.out.println("Ошибка при загрузке пользователей: " + e.getMessage());
         }
     }
 
-    private void saveCocktails() {                           // Приватный метод: сохранение коктейлей в файл
+    private void loadRatings() {                             // Приватный метод: загрузка оценок из отдельного снимка
         try {
-            JsonArray array = new JsonArray();               // Создаём пустой JSON-массив
-            for (Cocktail cocktail : cocktails) {            // Проходим по всем коктейлям
-                array.add(cocktailToJson(cocktail));         // Преобразуем каждый в JSON и добавляем
+            List<Rating> ratings = new ArrayList<>();
+            if (ratingStore.hasShards()) {                   // Шарды читаются параллельно
+                ratings = ratingStore.loadShards(Runtime.getRuntime().availableProcessors());
+            } else {
+                File legacy = ratingStore.locateLegacy();    // Один файл оценок
+                if (legacy != null) {
+                    ratingSnapshots.read(legacy, ratings::add);
+                    legacyRatings = true;
+                    dirtyRatingShards.set(0, USER_SHARD_COUNT);
+                } else if (users.stream().anyMatch(u -> !u.getRatings().isEmpty())) {  // Оценки ещё лежат внутри users.json
+                    dirtyRatingShards.set(0, USER_SHARD_COUNT);  // Переносим их в отдельное хранилище при ближайшем сворачивании
+                    dirtyUserShards.set(0, USER_SHARD_COUNT);  // Профили перепишутся уже без оценок
+                }
+            }
+            for (Rating rating : ratings) {
+                User user = getUserById(rating.getUserId());  // Поиск по индексу
+                if (user != null) {                          // Оценки удалённых пользователей пропускаем
+                    user.rateCocktail(rating.getCocktailId(), rating.getValue());
+                }
             }
-            writeFile(COCKTAILS_FILE, gson.toJson(array));   // Записываем массив в файл с красивым форматированием
         } catch (Exception e) {
-            System.out.println("Ошибка при сохранении коктейлей: " + e.getMessage());
+            System.out.println("Ошибка при загрузке оценок: " + e.getMessage());
         }
     }
 
-    private void saveUsers() {                               // Приватный метод: сохранение пользователей
-        try {
-            JsonArray array = new JsonArray();
-            for (User user : users) {
-                array.add(userToJson(user));
+    private List<Rating> collectRatings(BitSet shards) {     // Собирает оценки пользователей из указанных шардов
+        List<Rating> ratings = new ArrayList<>();
+        for (User user : users) {
+            if (!shards.get(ratingStore.shardOf(user.getId()))) {  // Оценки неизменённых шардов не нужны
+                continue;
+            }
+            for (Map.Entry<Integer, Integer> entry : user.getRatings().entrySet()) {
+                ratings.add(new Rating(user.getId(), entry.getKey(), entry.getValue()));
             }
-            writeFile(USERS_FILE, gson.toJson(array));
-        } catch (Exception e) {
-            System.out.println("Ошибка при сохранении пользователей: " + e.getMessage());
         }
+        return ratings;
     }
 
-    // ===== ПРЕОБРАЗОВАНИЕ JSON ↔ ОБЪЕКТЫ =====
+    private void saveCocktails() throws IOException {        // Приватный метод: сохранение коктейлей в файл (полный снимок)
+        writeCocktailSnapshot(cocktails, snapshotFormat);    // Ошибку не глотаем — вызывающий решает, что делать без снимка
+    }
 
-    private Cocktail parseCocktail(JsonObject obj) {         // Приватный метод: преобразует JSON в объект Cocktail
-        Cocktail c = new Cocktail(                           // Создаём новый коктейль с основными полями
-                obj.get("id").getAsInt(),
-                obj.get("name").getAsString(),
-                obj.get("description").getAsString(),
-                obj.get("alcoholBase").getAsString(),
-                obj.get("difficulty").getAsString(),
-                obj.get("preparationTime").getAsInt(),
-                obj.get("imageUrl").getAsString()
-        );
-
-        JsonArray ingredients = obj.getAsJsonArray("ingredients");  // Получаем массив ингредиентов
-        for (JsonElement elem : ingredients) {               // Проходим по каждому ингредиенту
-            JsonObject ingObj = elem.getAsJsonObject();      // Получаем объект ингредиента
-            c.addIngredient(new Ingredient(                  // Создаём и добавляем ингредиент
-                    ingObj.get("name").getAsString(),
-                    ingObj.get("quantity").getAsDouble(),
-                    ingObj.get("unit").getAsString()
-            ));
+    /**
+     * Записывает снимки только тех хранилищ и шардов, которые менялись (вызывается из потока писателя).
+     * Оценки пишутся раньше профилей: при переносе из старого формата профили без оценок
+     * не должны появиться на диске раньше, чем снимок оценок.
+     */
+    private void writeSnapshots() throws IOException {
+        SnapshotFormat format = snapshotFormat;              // Формат фиксируем один на все снимки
+        SnapshotFormat recordsFormat = format == SnapshotFormat.MAPPED ? SnapshotFormat.HESSIAN : format;  // Каталог бывает только у коктейлей
+        List<Cocktail> cocktailsCopy = null;                 // Ссылки на коктейли на момент снимка (null — не менялись)
+        List<List<User>> userParts;                          // Профили по шардам на момент снимка
+        List<List<Rating>> ratingParts;                      // Оценки по шардам на момент снимка
+        boolean writeCocktails;                              // Что пишем в этот раз
+        BitSet userShards;
+        BitSet ratingShards;
+        boolean deleteLegacy;                                // Файлы старого формата удаляем после записи всех шардов
+        synchronized (this) {                                // Под блокировкой только фиксируем, какие объекты попадут в снимок
+            writeCocktails = cocktailsDirty;
+            userShards = (BitSet) dirtyUserShards.clone();
+            ratingShards = (BitSet) dirtyRatingShards.clone();
+            deleteLegacy = legacyUsers || legacyRatings;
+            if (writeCocktails) {
+                cocktailsCopy = getSnapshot().getCocktails();  // Снимок может быть больше памяти — пишем его потоком уже без блокировки
+            }
+            userParts = userStore.partition(users, userShards);  // Один проход по пользователям
+            ratingParts = ratingStore.partition(collectRatings(ratingShards), ratingShards);
+            cocktailsDirty = false;                          // Изменения после этой точки попадут в следующий снимок
+            dirtyUserShards.clear();
+            dirtyRatingShards.clear();
+            legacyUsers = legacyRatings = false;
+        }
+        try {                                                // Сериализация и запись на диск идут уже без блокировки
+            for (int shard = ratingShards.nextSetBit(0); shard >= 0; shard = ratingShards.nextSetBit(shard + 1)) {
+                writeSnapshot(ratingStore.shardPath(shard), ratingSnapshots, ratingParts.get(shard), recordsFormat);
+            }
+            for (int shard = userShards.nextSetBit(0); shard >= 0; shard = userShards.nextSetBit(shard + 1)) {
+                writeSnapshot(userStore.shardPath(shard), userSnapshots, userParts.get(shard), recordsFormat);
+            }
+            if (deleteLegacy) {                              // Все шарды записаны — старые одиночные файлы больше не нужны
+                ratingStore.deleteLegacy();
+                userStore.deleteLegacy();
+            }
+            if (cocktailsCopy != null) {
+                writeCocktailSnapshot(cocktailsCopy, format);
+            }
+        } catch (IOException | RuntimeException e) {         // Объект могли изменить на месте посреди записи — снимок повторим позже
+            synchronized (this) {                            // Снимок не записан — журнал не очистится, а хранилища остаются «грязными»
+                cocktailsDirty |= writeCocktails;
+                dirtyUserShards.or(userShards);
+                dirtyRatingShards.or(ratingShards);
+                legacyUsers |= deleteLegacy;
+            }
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
         }
+    }
 
-        JsonArray steps = obj.getAsJsonArray("preparationSteps");  // Получаем массив шагов
-        for (JsonElement elem : steps) {
-            JsonObject stepObj = elem.getAsJsonObject();
-            c.addPreparationStep(new PreparationStep(
-                    stepObj.get("stepNumber").getAsInt(),
-                    stepObj.get("description").getAsString(),
-                    stepObj.get("tips").getAsString(),
-                    stepObj.get("duration").getAsInt()
-            ));
+    private void writeCocktailSnapshot(List<Cocktail> items, SnapshotFormat format) throws IOException {  // Снимок коктейлей в любом формате
+        if (format != SnapshotFormat.MAPPED) {               // Обычный снимок — через кодек
+            writeSnapshot(COCKTAILS_SNAPSHOT, cocktailSnapshots, items, format);
+            return;
         }
+        File file = new File(COCKTAILS_SNAPSHOT + format.getExtension());
+        file.getParentFile().mkdirs();                       // Создаём папки, если их нет
+        File temp = new File(file.getPath() + ".tmp");       // Каталог пишем во временный файл рядом
+        MappedCatalog.write(temp, items);                    // Нетронутые подробности копируются из старого каталога байтами
+        Files.move(temp.toPath(), file.toPath(),             // Открытые отображения продолжают ссылаться на старый файл
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteStaleSnapshots(COCKTAILS_SNAPSHOT, format);    // Снимки в других форматах теперь устарели
+    }
 
-        c.setAverageRating(obj.get("averageRating").getAsDouble());  // Устанавливаем средний рейтинг
-        return c;                                            // Возвращаем готовый объект
+    // Возвращает формат, в котором пишутся снимки
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
     }
 
-    private JsonObject cocktailToJson(Cocktail c) {          // Приватный метод: преобразует коктейль в JSON
-        JsonObject obj = new JsonObject();                   // Создаём основной объект
-        obj.addProperty("id", c.getId());                    // Добавляем ID
-        obj.addProperty("name", c.getName());                // Добавляем название
-        obj.addProperty("description", c.getDescription());  // Описание
-        obj.addProperty("alcoholBase", c.getAlcoholBase());  // Алкогольная основа
-        obj.addProperty("difficulty", c.getDifficulty());    // Сложность
-        obj.addProperty("preparationTime", c.getPreparationTime());  // Время приготовления
-        obj.addProperty("imageUrl", c.getImageUrl());        // Путь к изображению
-        obj.addProperty("averageRating", c.getAverageRating());  // Средний рейтинг
-
-        JsonArray ingredients = new JsonArray();             // Создаём массив ингредиентов
-        for (Ingredient ing : c.getIngredients()) {          // Проходим по всем ингредиентам
-            JsonObject ingObj = new JsonObject();            // Создаём объект для ингредиента
-            ingObj.addProperty("name", ing.getName());       // Название
-            ingObj.addProperty("quantity", ing.getQuantity());  // Количество
-            ingObj.addProperty("unit", ing.getUnit());       // Единица измерения
-            ingredients.add(ingObj);                         // Добавляем в массив
-        }
-        obj.add("ingredients", ingredients);                 // Добавляем массив в основной объект
-
-        JsonArray steps = new JsonArray();                   // Создаём массив шагов
-        for (PreparationStep step : c.getPreparationSteps()) {  // Проходим по шагам
-            JsonObject stepObj = new JsonObject();
-            stepObj.addProperty("stepNumber", step.getStepNumber());
-            stepObj.addProperty("description", step.getDescription());
-            stepObj.addProperty("tips", step.getTips());
-            stepObj.addProperty("duration", step.getDuration());
-            steps.add(stepObj);
-        }
-        obj.add("preparationSteps", steps);                  // Добавляем шаги
+    /**
+     * Меняет формат снимков. Данные будут переписаны в новом формате при следующем сворачивании
+     * журнала (или сразу — вызовом compact()); снимок в старом формате после этого удаляется.
+     */
+    public synchronized void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+        cocktailsDirty = true;                               // В новом формате нужно переписать все хранилища
+        dirtyUserShards.set(0, USER_SHARD_COUNT);
+        dirtyRatingShards.set(0, USER_SHARD_COUNT);
+    }
+
+    // ===== ПРЕОБРАЗОВАНИЕ JSON ↔ ОБЪЕКТЫ =====
 
-        return obj;                                          // Возвращаем готовый JSON-объект
+    private Cocktail parseCocktail(JsonObject obj) {         // Приватный метод: преобразует JSON в объект Cocktail
+        return cocktailAdapter.fromJsonTree(obj);            // Разбор делегируем потоковому адаптеру
     }
 
-    private User parseUser(JsonObject obj) {                 // Приватный метод: преобразует JSON в User
-        User u = new User(                                   // Создаём пользователя
-                obj.get("id").getAsInt(),
-                obj.get("username").getAsString(),
-                obj.get("email").getAsString(),
-                obj.get("passwordHash").getAsString()
-        );
-
-        JsonObject ratings = obj.getAsJsonObject("ratings"); // Получаем объект с оценками
-        for (String key : ratings.keySet()) {                // Проходим по всем ключам (ID коктейлей)
-            u.rateCocktail(Integer.parseInt(key), ratings.get(key).getAsInt());  // Восстанавливаем оценку
-        }
+    private JsonObject cocktailToJson(Cocktail c) {          // Приватный метод: преобразует коктейль в JSON
+        return cocktailAdapter.toJsonTree(c).getAsJsonObject();  // Тот же адаптер, что и для файлов снимков
+    }
 
-        return u;                                            // Возвращаем пользователя
+    private User parseUser(JsonObject obj) {                 // Приватный метод: преобразует JSON в User
+        return userAdapter.fromJsonTree(obj);
     }
 
     private JsonObject userToJson(User u) {                  // Приватный метод: преобразует User в JSON
-        JsonObject obj = new JsonObject();
-        obj.addProperty("id", u.getId());
-        obj.addProperty("username", u.getUsername());
-        obj.addProperty("email", u.getEmail());
-        obj.addProperty("passwordHash", u.getPasswordHash());
-
-        JsonObject ratings = new JsonObject();               // Создаём объект для оценок
-        for (Map.Entry<Integer, Integer> entry : u.getRatings().entrySet()) {  // Проходим по всем оценкам
-            ratings.addProperty(entry.getKey().toString(), entry.getValue());  // Ключ — ID коктейля, значение — оценка
-        }
-        obj.add("ratings", ratings);                         // Добавляем оценки
-
-        return obj;
+        return userAdapter.toJsonTree(u).getAsJsonObject();
     }
 
     // ===== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ =====
 
-    private String readFile(File file) throws IOException { // Метод: читает весь файл в строку
-        StringBuilder content = new StringBuilder();         // Буфер для результата
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {  // Автозакрытие ридера
-            String line;                                     // Переменная для строки
-            while ((line = reader.readLine()) != null) {     // Читаем построчно
-                content.append(line);                        // Добавляем строку (без \n)
+    static File locateSnapshot(String basePath) {            // Метод: находит файл снимка в любом формате (null — если нет ни одного)
+        File newest = null;                                  // Самый свежий из найденных файлов
+        for (SnapshotFormat format : SnapshotFormat.values()) {  // Проверяем все известные расширения
+            File candidate = new File(basePath + format.getExtension());
+            if (candidate.exists() && (newest == null || candidate.lastModified() > newest.lastModified())) {
+                newest = candidate;                          // Если вдруг есть оба — берём более свежий
             }
         }
-        return content.toString();                           // Возвращаем весь текст
+        return newest;
     }
 
-    private void writeFile(String filePath, String content) throws IOException {  // Метод: записывает строку в файл
-        File file = new File(filePath);                      // Создаём объект файла
+    private <T> void writeSnapshot(String basePath, SnapshotCodec<T> codec, Collection<T> items, SnapshotFormat format)
+            throws IOException {                             // Метод: пишет снимок и убирает устаревший
+        File file = new File(basePath + format.getExtension());
         file.getParentFile().mkdirs();                       // Создаём папки, если их нет
-        try (FileWriter writer = new FileWriter(file)) {     // Автозакрытие писателя
-            writer.write(content);                          // Записываем содержимое
+        File temp = new File(file.getPath() + ".tmp");       // Сначала пишем во временный файл рядом
+        codec.write(temp, items, format);                    // Потоком, запись за записью
+        Files.move(temp.toPath(), file.toPath(),             // Атомарно подменяем старый снимок новым,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);  // чтобы сбой не оставил полфайла
+        deleteStaleSnapshots(basePath, format);              // Снимок в другом формате теперь устарел
+    }
+
+    private void deleteStaleSnapshots(String basePath, SnapshotFormat current) throws IOException {  // Удаляет снимки в других форматах
+        for (SnapshotFormat other : SnapshotFormat.values()) {
+            if (other != current) {
+                Files.deleteIfExists(new File(basePath + other.getExtension()).toPath());
+            }
         }
     }
 
@@ -357,6 +514,11 @@ public class DatabaseService {                               // Объявлен
                 "Процедите в охлажденный бокал", 10));
         cocktails.add(daiquiri);
 
-        saveCocktails();                                     // Сохраняем созданные коктейли в файл
+        try {
+            saveCocktails();                                 // Сохраняем созданные коктейли в файл
+        } catch (IOException e) {
+            System.out.println("Ошибка при сохранении коктейлей: " + e.getMessage());
+            cocktailsDirty = true;                           // Снимка нет — примеры запишутся при сворачивании журнала
+        }
     }
 }
\ No newline at end of file
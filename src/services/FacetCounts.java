@@ -0,0 +1,55 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.util.*;                                          // Импорт коллекций
+import java.util.function.Function;                          // Импорт функции «объект → значение поля»
+
+/**
+ * Значения одного поля (фасета) с числом коктейлей у каждого, например «Ром → 1204».
+ * Поддерживается на каждом изменении: значение исчезает, когда его счётчик доходит до нуля.
+ */
+public class FacetCounts {                                   // Публичный класс счётчиков фасета
+
+    private final Map<String, Integer> counts;               // Поле: значение → число коктейлей
+
+    public FacetCounts() {                                   // Значения всегда по алфавиту — как в любом хранилище
+        this.counts = new TreeMap<>();
+    }
+
+    public void add(String value) {                          // Ещё один коктейль с этим значением
+        if (value != null) {
+            counts.merge(value, 1, Integer::sum);
+        }
+    }
+
+    public void remove(String value) {                       // На один коктейль с этим значением меньше
+        if (value != null) {
+            counts.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);  // null — убрать значение
+        }
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+
+    public List<String> values() {                           // Значения в порядке фасета
+        return new ArrayList<>(counts.keySet());
+    }
+
+    public Map<String, Integer> snapshot() {                 // Копия «значение → число» в порядке фасета
+        return new LinkedHashMap<>(counts);
+    }
+
+    /**
+     * Счётчики по уже полученному списку (например, по результатам поиска) — за один проход по нему
+     */
+    public static <T> Map<String, Integer> count(Collection<T> items, Function<T, String> field) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (T item : items) {
+            String value = field.apply(item);
+            if (value != null) {
+                counts.merge(value, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,247 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.PreparationStep;                               // Импорт шага приготовления
+import utils.RussianStemmer;                                 // Импорт стеммера
+import utils.TopK;                                           // Импорт отбора лучших k
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Полнотекстовый индекс по описанию коктейля, описаниям шагов и советам к ним, с ранжированием BM25.
+ *
+ * Текст разбивается на слова (та же нормализация, что и для названий), служебные слова пропускаются, остальные
+ * приводятся к основе русским стеммером: «процедите в охлаждённый бокал» находит «процедить в охлаждённые бокалы».
+ * Для каждой основы хранится список «ID → позиции в тексте», поэтому запрос в кавычках ищется как фраза — слова
+ * подряд, в том же порядке.
+ * Поля разделены пропуском позиций, чтобы фраза не склеивалась из конца одного шага и начала другого.
+ */
+public class FullTextIndex {                                 // Публичный класс полнотекстового индекса
+
+    private static final double K1 = 1.2;                    // Константа BM25: насыщение частоты слова
+    private static final double B = 0.75;                    // Константа BM25: поправка на длину текста
+    private static final int FIELD_GAP = 100;                // Константа: пропуск позиций между полями
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(  // Константа: служебные слова без смысла для поиска
+            "и", "в", "во", "не", "на", "с", "со", "как", "а", "то", "но", "да", "к", "ко", "у", "же", "за", "бы", "по",
+            "от", "о", "об", "из", "до", "для", "без", "под", "при", "над", "про", "через", "или", "ли", "это", "его",
+            "ее", "их", "так", "все", "всё"));
+
+    /**
+     * Найденный коктейль (по ID) и его оценка BM25
+     */
+    public static final class Hit {
+        private final int id;
+        private final double score;
+
+        Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    private static final Comparator<Hit> BEST_FIRST =        // Константа: выше оценка, при равенстве — меньший ID
+            Comparator.comparingDouble((Hit h) -> -h.score).thenComparingInt(h -> h.id);
+
+    private final Map<String, Map<Integer, int[]>> postings;  // Поле: основа → (ID → позиции по возрастанию)
+    private final Map<Integer, Set<String>> documentTerms;   // Поле: ID → основы его текста (для удаления)
+    private final Map<Integer, Integer> lengths;             // Поле: ID → число слов в тексте
+    private final Map<String, String> stems;                 // Поле: слово → основа (словарь описаний невелик, стеммер дороже поиска в карте)
+    private long totalLength;                                // Поле: сумма длин — для средней длины в BM25
+
+    public FullTextIndex() {
+        this.postings = new HashMap<>();
+        this.documentTerms = new HashMap<>();
+        this.lengths = new HashMap<>();
+        this.stems = new HashMap<>();
+    }
+
+    public int size() {                                      // Проиндексировано коктейлей
+        return lengths.size();
+    }
+
+    /**
+     * Поля коктейля, по которым ведётся поиск: описание, затем описание и совет каждого шага
+     */
+    public static List<String> fieldsOf(Cocktail cocktail) {
+        List<String> fields = new ArrayList<>();
+        fields.add(cocktail.getDescription());
+        for (PreparationStep step : cocktail.getPreparationSteps()) {
+            fields.add(step.getDescription());
+            fields.add(step.getTips());
+        }
+        return fields;
+    }
+
+    /**
+     * Основы слов текста по порядку; null на месте служебного слова (позиция при этом сохраняется)
+     */
+    public List<String> analyze(String text) {
+        return analyze(text, false);
+    }
+
+    private List<String> analyze(String text, boolean remember) {  // remember — запомнить основы (только для текстов каталога, не запросов)
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = FuzzyNameIndex.normalize(text);  // Нижний регистр, «ё» → «е», без знаков препинания
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        for (String word : normalized.split(" ")) {
+            if (STOP_WORDS.contains(word)) {
+                terms.add(null);
+                continue;
+            }
+            String stem = stems.get(word);
+            if (stem == null) {
+                stem = stem(word);
+                if (remember) {
+                    stems.put(word, stem);
+                }
+            }
+            terms.add(stem);
+        }
+        return terms;
+    }
+
+    public void add(int id, List<String> fields) {           // Индексирует текст коктейля (прежний текст с этим ID заменяется)
+        remove(id);
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int position = 0;
+        int length = 0;
+        for (String field : fields) {
+            for (String term : analyze(field, true)) {
+                if (term != null) {
+                    positions.computeIfAbsent(term, t -> new ArrayList<>()).add(position);
+                    length++;
+                }
+                position++;
+            }
+            position += FIELD_GAP;
+        }
+        for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(id, array);
+        }
+        documentTerms.put(id, positions.keySet());
+        lengths.put(id, length);
+        totalLength += length;
+    }
+
+    public void remove(int id) {                             // Убирает текст коктейля из индекса
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Integer, int[]> list = postings.get(term);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(term);                   // Пустые списки не храним
+                }
+            }
+        }
+        totalLength -= lengths.remove(id);
+    }
+
+    /**
+     * Не больше limit коктейлей по убыванию BM25. Слова запроса объединяются через ИЛИ (больше совпавших слов —
+     * выше оценка); часть запроса в кавычках обязана встретиться фразой
+     */
+    public List<Hit> search(String query, int limit) {
+        List<List<String>> phrases = new ArrayList<>();
+        Set<String> terms = new LinkedHashSet<>();
+        String[] parts = query.split("\"", -1);              // Нечётные части — внутри кавычек
+        for (int i = 0; i < parts.length; i++) {
+            List<String> analyzed = analyze(parts[i]);
+            for (String term : analyzed) {
+                if (term != null) {
+                    terms.add(term);
+                }
+            }
+            if (i % 2 == 1 && analyzed.stream().filter(Objects::nonNull).count() > 1) {
+                phrases.add(analyzed);                       // Фраза из одного слова — обычное слово
+            }
+        }
+        if (terms.isEmpty() || lengths.isEmpty()) {
+            return new ArrayList<>();
+        }
+        double averageLength = Math.max(1, (double) totalLength / lengths.size());
+        Map<Integer, double[]> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<Integer, int[]> list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (lengths.size() - list.size() + 0.5) / (list.size() + 0.5));
+            for (Map.Entry<Integer, int[]> entry : list.entrySet()) {
+                int tf = entry.getValue().length;
+                double norm = K1 * (1 - B + B * lengths.get(entry.getKey()) / averageLength);
+                scores.computeIfAbsent(entry.getKey(), id -> new double[1])[0] += idf * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            if (containsPhrases(entry.getKey(), phrases)) {
+                hits.add(new Hit(entry.getKey(), entry.getValue()[0]));
+            }
+        }
+        return TopK.top(hits, limit, BEST_FIRST);
+    }
+
+    private boolean containsPhrases(int id, List<List<String>> phrases) {
+        for (List<String> phrase : phrases) {
+            if (!containsPhrase(id, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsPhrase(int id, List<String> phrase) {  // Все слова фразы на тех же расстояниях, что и в запросе
+        int first = -1;
+        for (int i = 0; i < phrase.size() && first < 0; i++) {
+            if (phrase.get(i) != null) {
+                first = i;
+            }
+        }
+        int[] anchors = positions(phrase.get(first), id);
+        for (int anchor : anchors) {
+            boolean matched = true;
+            for (int i = first + 1; i < phrase.size() && matched; i++) {
+                if (phrase.get(i) != null) {
+                    matched = Arrays.binarySearch(positions(phrase.get(i), id), anchor + i - first) >= 0;
+                }
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] positions(String term, int id) {
+        Map<Integer, int[]> list = postings.get(term);
+        int[] positions = list == null ? null : list.get(id);
+        return positions != null ? positions : new int[0];
+    }
+
+    private static String stem(String word) {                // Русские слова — к основе, остальные (латиница, числа) как есть
+        return Character.UnicodeBlock.of(word.charAt(0)) == Character.UnicodeBlock.CYRILLIC
+                ? RussianStemmer.stem(word) : word;
+    }
+}
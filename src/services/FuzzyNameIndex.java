@@ -0,0 +1,236 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import utils.IntPostingList;                                  // Импорт отсортированного списка вхождений
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Поиск названий с опечатками: BK-дерево над словарём слов из названий.
+ *
+ * Каждое различное слово названия (и название целиком, если в нём несколько слов) — узел дерева; потомки узла
+ * разложены по расстоянию Левенштейна до него. Из-за неравенства треугольника при поиске с допуском k у узла
+ * на расстоянии d достаточно обойти потомков с расстояниями от d - k до d + k, а не весь словарь.
+ *
+ * Слова сравниваются после нормализации: нижний регистр, «ё» → «е», знаки препинания → пробел, а в словах,
+ * где смешаны кириллица и латиница, латинские буквы-двойники заменяются кириллическими («Мaртини» с латинской
+ * «a» → «мартини»). Удалённые слова остаются в дереве пустыми узлами, пока их не наберётся больше половины.
+ */
+public class FuzzyNameIndex {                                // Публичный класс нечёткого индекса названий
+
+    private static final String LATIN_TWINS = "aceopxykmthb";  // Константа: латинские буквы, похожие на кириллические
+    private static final String CYRILLIC_TWINS = "асеорхукмтнв";  // Константа: их кириллические двойники (в том же порядке)
+
+    private Node root;                                       // Поле: корень дерева (null — словарь пуст)
+    private final Map<String, Node> nodes;                   // Поле: слово → узел (для добавления и удаления)
+    private int emptyNodes;                                  // Поле: узлы, у которых не осталось коктейлей
+
+    public FuzzyNameIndex() {
+        this.nodes = new HashMap<>();
+    }
+
+    /**
+     * Допуск по умолчанию для запроса: короткие слова — без опечаток или с одной, длинные — до двух
+     */
+    public static int defaultDistance(String query) {
+        int length = normalize(query).length();
+        return length < 4 ? 0 : length < 7 ? 1 : 2;
+    }
+
+    public static String normalize(String text) {            // Приведение, общее для словаря и для запроса
+        StringBuilder sb = new StringBuilder(text.length());
+        for (String word : text.toLowerCase().replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(isMixed(word) ? toCyrillic(word) : word);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Расстояние Левенштейна (вставка, удаление, замена символа)
+     */
+    public static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int replace = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Наименьшее расстояние от запроса до слов названия (или до названия целиком); уже нормализованные строки
+     */
+    public static int nameDistance(String normalizedQuery, String name) {
+        int best = Integer.MAX_VALUE;
+        for (String term : terms(normalize(name))) {
+            best = Math.min(best, distance(normalizedQuery, term));
+        }
+        return best;
+    }
+
+    public void add(int id, String name) {                   // Добавляет название с указанным ID
+        if (name == null) {
+            return;
+        }
+        for (String term : terms(normalize(name))) {
+            Node node = nodes.get(term);
+            if (node == null) {
+                node = new Node(term);
+                nodes.put(term, node);
+                insert(node);
+            } else if (node.ids.isEmpty()) {
+                emptyNodes--;                                // Слово вернулось в словарь
+            }
+            node.ids.add(id);
+        }
+    }
+
+    public void remove(int id, String name) {                // Убирает название (то же, что передавалось в add)
+        if (name == null) {
+            return;
+        }
+        for (String term : terms(normalize(name))) {
+            Node node = nodes.get(term);
+            if (node != null && node.ids.remove(id) && node.ids.isEmpty()) {
+                emptyNodes++;
+            }
+        }
+        if (emptyNodes > nodes.size() / 2) {                 // Пустых узлов слишком много — обход тратит время на них
+            rebuild();
+        }
+    }
+
+    /**
+     * ID, у которых какое-либо слово названия не дальше maxDistance от запроса, сгруппированные по расстоянию:
+     * элемент [d] — ID с наименьшим расстоянием ровно d (по возрастанию ID)
+     */
+    public int[][] search(String query, int maxDistance) {
+        String normalized = normalize(query);
+        int[][] found = new int[maxDistance + 1][0];         // Расстояние → объединение списков подошедших слов
+        if (root != null && !normalized.isEmpty()) {
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                int d = distance(normalized, node.term);
+                if (d <= maxDistance && !node.ids.isEmpty()) {
+                    found[d] = IntPostingList.union(found[d], node.ids.toArray());
+                }
+                for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - d) <= maxDistance) {  // Остальные поддеревья дальше допуска
+                        pending.push(child.getValue());
+                    }
+                }
+            }
+        }
+        int[][] result = new int[maxDistance + 1][];
+        int[] seen = new int[0];
+        for (int d = 0; d <= maxDistance; d++) {             // ID остаётся только в группе своего наименьшего расстояния
+            result[d] = IntPostingList.difference(found[d], seen);
+            seen = IntPostingList.union(seen, found[d]);
+        }
+        return result;
+    }
+
+    private void insert(Node node) {                         // Вставка узла в BK-дерево
+        if (root == null) {
+            root = node;
+            return;
+        }
+        Node current = root;
+        while (true) {
+            int d = distance(node.term, current.term);
+            Node child = current.children.get(d);
+            if (child == null) {
+                current.children.put(d, node);
+                return;
+            }
+            current = child;
+        }
+    }
+
+    private void rebuild() {                                 // Дерево заново — только из непустых узлов
+        List<Node> live = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (!node.ids.isEmpty()) {
+                live.add(new Node(node.term, node.ids));
+            }
+        }
+        root = null;
+        nodes.clear();
+        emptyNodes = 0;
+        for (Node node : live) {
+            nodes.put(node.term, node);
+            insert(node);
+        }
+    }
+
+    private static List<String> terms(String normalized) {   // Слова названия и, если их несколько, всё название
+        List<String> terms = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        String[] words = normalized.split(" ");
+        for (String word : words) {
+            if (!terms.contains(word)) {
+                terms.add(word);
+            }
+        }
+        if (words.length > 1) {
+            terms.add(normalized);
+        }
+        return terms;
+    }
+
+    private static boolean isMixed(String word) {            // Есть и кириллица, и латиница
+        boolean cyrillic = false;
+        boolean latin = false;
+        for (int i = 0; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            cyrillic |= Character.UnicodeBlock.of(ch) == Character.UnicodeBlock.CYRILLIC;
+            latin |= ch >= 'a' && ch <= 'z';
+        }
+        return cyrillic && latin;
+    }
+
+    private static String toCyrillic(String word) {          // Латинские двойники → кириллица
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            int twin = LATIN_TWINS.indexOf(chars[i]);
+            if (twin >= 0) {
+                chars[i] = CYRILLIC_TWINS.charAt(twin);
+            }
+        }
+        return new String(chars);
+    }
+
+    private static final class Node {                        // Узел BK-дерева: слово, его коктейли и потомки по расстоянию
+        private final String term;
+        private final IntPostingList ids;
+        private final Map<Integer, Node> children;
+
+        Node(String term) {
+            this(term, new IntPostingList());
+        }
+
+        Node(String term, IntPostingList ids) {
+            this.term = term;
+            this.ids = ids;
+            this.children = new HashMap<>();
+        }
+    }
+}
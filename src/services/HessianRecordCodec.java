@@ -0,0 +1,17 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import com.caucho.hessian.io.Hessian2Input;                   // Импорт двоичного читателя Hessian 2
+import com.caucho.hessian.io.Hessian2Output;                  // Импорт двоичного писателя Hessian 2
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+
+/**
+ * Явная (без рефлексии) двоичная запись одной модели в поток Hessian 2.
+ * Поля пишутся примитивами Hessian в фиксированном порядке, поэтому модели не обязаны быть Serializable.
+ * @param <T> тип модели
+ */
+public interface HessianRecordCodec<T> {
+
+    void write(Hessian2Output out, T value) throws IOException;  // Записывает одну модель
+
+    T read(Hessian2Input in) throws IOException;             // Читает одну модель в том же порядке полей
+}
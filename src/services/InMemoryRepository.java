@@ -0,0 +1,932 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.BarMatch;                                      // Импорт результата поиска по запасу бара
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.CocktailSummary;                               // Импорт краткого представления коктейля
+import models.Ingredient;                                    // Импорт модели ингредиента
+import models.Suggestion;                                    // Импорт подсказки при вводе
+import models.TextMatch;                                     // Импорт результата полнотекстового поиска
+import models.User;                                          // Импорт модели пользователя
+import java.util.*;                                          // Импорт коллекций (List, ArrayList, Map и т.д.)
+import java.util.function.IntPredicate;                      // Импорт проверки по ID (пересечение с индексом)
+
+/**
+ * Хранилище целиком в памяти, без файлов. Используется в тестах и замерах,
+ * а также служит основой DatabaseService, который добавляет к нему сохранение на диск.
+ */
+public class InMemoryRepository implements DataRepository {  // Публичный класс хранилища в памяти
+
+    private static final double PROBE_SELECTIVITY = 0.5;     // Константа: индекс проверяется по ID, если пропускает не больше этой доли каталога
+
+    protected final List<Cocktail> cocktails;                // Поле: список всех коктейлей
+    protected final List<User> users;                        // Поле: список всех пользователей (вместе с их оценками)
+
+    // Индексы поверх списков — обновляются при каждом изменении через методы apply*
+    private final Map<Integer, Integer> cocktailPositions;   // Поле: ID коктейля → позиция в списке cocktails
+    private final Map<Integer, Cocktail> cocktailsById;      // Поле: ID → коктейль
+    private final Map<String, Map<Integer, Cocktail>> cocktailsByBase;        // Поле: основа (в нижнем регистре) → коктейли в порядке добавления
+    private final Map<String, Map<Integer, Cocktail>> cocktailsByDifficulty;  // Поле: сложность (в нижнем регистре) → коктейли
+    private final FacetCounts baseFacet;                     // Поле: основа → число коктейлей (по алфавиту)
+    private final FacetCounts difficultyFacet;               // Поле: сложность → число коктейлей (по алфавиту)
+    private final NgramIndex nameIndex;                      // Поле: триграммы названий → ID коктейлей (поиск подстроки)
+    private IngredientIndex ingredientIndex;                 // Поле: ингредиенты → ID коктейлей; строится при первом запросе (null — ещё нет)
+    private BarQueryEngine barEngine;                        // Поле: маски составов для поиска по запасу бара; строится при первом запросе
+    private FuzzyNameIndex fuzzyIndex;                       // Поле: BK-дерево слов названий для поиска с опечатками; строится при первом запросе
+    private TypeaheadIndex typeahead;                        // Поле: префиксные деревья для подсказок при вводе; строятся при первом запросе
+    private FullTextIndex textIndex;                         // Поле: слова описаний, шагов и советов → ID с позициями; строится при первом запросе
+    private RangeIndex preparationTimeIndex;                 // Поле: время приготовления → ID (для диапазонов); строится при первом запросе
+    private RangeIndex stepDurationIndex;                    // Поле: суммарная длительность шагов → ID; строится при первом запросе
+    private final Map<CocktailOrder, SortedCocktailView> sortedViews;  // Поле: порядок → каталог в этом порядке; строится при первом запросе
+    private volatile CatalogSnapshot snapshot;               // Поле: снимок для чтения (null — после изменения ещё не собран)
+    private CatalogSnapshot published;                       // Поле: последний собранный снимок (из него берутся неизменившиеся части)
+    private boolean cocktailsChanged = true;                 // Поле: состав коктейлей изменился после публикации снимка
+    private boolean usersChanged = true;                     // Поле: состав пользователей изменился после публикации снимка
+    private long snapshotVersion;                            // Поле: номер последнего опубликованного снимка
+    private volatile long catalogVersion;                    // Поле: версия каталога — растёт при каждом изменении коктейлей и рейтингов
+    private final Map<Integer, String[]> indexedCocktailKeys;  // Поле: ID → {название, основа, сложность}, под которыми коктейль лежит в индексах
+    private final Map<Integer, Integer> userPositions;       // Поле: ID пользователя → позиция в списке users
+    private final Map<Integer, User> usersById;              // Поле: ID → пользователь
+    private final Map<String, User> usersByUsername;         // Поле: имя → пользователь
+    private final Map<Integer, String> indexedUsernames;     // Поле: ID → имя, под которым пользователь лежит в индексе
+    private final Map<Integer, long[]> ratingTotals;         // Поле: ID коктейля → {сумма оценок, число оценок} по всем пользователям
+
+    public InMemoryRepository() {                            // Конструктор — пустое хранилище
+        this.cocktails = new ArrayList<>();                  // Инициализируем пустой список коктейлей
+        this.users = new ArrayList<>();                      // Инициализируем пустой список пользователей
+        this.cocktailPositions = new HashMap<>();
+        this.cocktailsById = new HashMap<>();
+        this.cocktailsByBase = new HashMap<>();
+        this.cocktailsByDifficulty = new HashMap<>();
+        this.baseFacet = new FacetCounts();
+        this.difficultyFacet = new FacetCounts();
+        this.nameIndex = new NgramIndex();
+        this.sortedViews = new EnumMap<>(CocktailOrder.class);
+        this.indexedCocktailKeys = new HashMap<>();
+        this.userPositions = new HashMap<>();
+        this.usersById = new HashMap<>();
+        this.usersByUsername = new HashMap<>();
+        this.indexedUsernames = new HashMap<>();
+        this.ratingTotals = new HashMap<>();
+    }
+
+    // ===== ОПЕРАЦИИ С КОКТЕЙЛЯМИ =====
+
+    @Override
+    public List<Cocktail> getAllCocktails() {                // Метод: возвращает список всех коктейлей (только для чтения)
+        return getSnapshot().getCocktails();                 // Список опубликованного снимка — без копии и без блокировки
+    }
+
+    @Override
+    public synchronized Cocktail getCocktailById(int id) {   // Метод: ищет коктейль по его ID
+        return cocktailsById.get(id);                        // Поиск по индексу; null — если не найден
+    }
+
+    @Override
+    public List<CocktailSummary> getCocktailSummaries() {    // Метод: краткие представления без промежуточной копии списка
+        List<Cocktail> all = getSnapshot().getCocktails();
+        List<CocktailSummary> summaries = new ArrayList<>(all.size());
+        for (Cocktail c : all) {                             // Подробные поля не читаются — у каталога они остаются недекодированными
+            summaries.add(CocktailSummary.of(c));
+        }
+        return summaries;
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                                     TimeRange preparationTime, TimeRange stepsDuration) {
+        QueryPlan plan = planFindCocktails(nameFragment, alcoholBase, difficulty, preparationTime, stepsDuration);
+        Collection<Cocktail> candidates;
+        switch (plan.getDriver().getAccess()) {              // Кандидаты от ведущего шага
+            case ALCOHOL_BASE_INDEX:
+                candidates = bucket(cocktailsByBase, alcoholBase).values();
+                break;
+            case DIFFICULTY_INDEX:
+                candidates = bucket(cocktailsByDifficulty, difficulty).values();
+                break;
+            case NAME_NGRAM_INDEX:
+                candidates = cocktailsByIds(nameIndex.candidates(nameFragment));
+                break;
+            case PREPARATION_TIME_INDEX:
+                candidates = cocktailsByIds(preparationTimeIndex().ids(preparationTime));
+                break;
+            case STEP_DURATION_INDEX:
+                candidates = cocktailsByIds(stepDurationIndex().ids(stepsDuration));
+                break;
+            default:
+                candidates = cocktails;
+        }
+        List<IntPredicate> probes = new ArrayList<>();       // Пересечение с остальными выбранными индексами — проверка по ID
+        for (QueryPlan.Step probe : plan.getProbes()) {
+            switch (probe.getAccess()) {
+                case ALCOHOL_BASE_INDEX:
+                    probes.add(bucket(cocktailsByBase, alcoholBase)::containsKey);
+                    break;
+                case DIFFICULTY_INDEX:
+                    probes.add(bucket(cocktailsByDifficulty, difficulty)::containsKey);
+                    break;
+                case PREPARATION_TIME_INDEX:
+                    probes.add(preparationTimeIndex().prober(preparationTime));
+                    break;
+                case STEP_DURATION_INDEX:
+                    probes.add(stepDurationIndex().prober(stepsDuration));
+                    break;
+                default:
+                    probes.add(nameIndex.prober(nameFragment));
+            }
+        }
+        String lowerName = isBlank(nameFragment) ? null : NgramIndex.fold(nameFragment);  // Запрос приводим один раз
+        boolean checkBase = !isBlank(alcoholBase) && !plan.uses(QueryPlan.Access.ALCOHOL_BASE_INDEX);
+        boolean checkDifficulty = !isBlank(difficulty) && !plan.uses(QueryPlan.Access.DIFFICULTY_INDEX);
+        boolean checkTime = preparationTime != null && !plan.uses(QueryPlan.Access.PREPARATION_TIME_INDEX);
+        boolean checkSteps = stepsDuration != null && !plan.uses(QueryPlan.Access.STEP_DURATION_INDEX);
+        List<Cocktail> result = new ArrayList<>();
+        candidates:
+        for (Cocktail c : candidates) {
+            for (IntPredicate probe : probes) {
+                if (!probe.test(c.getId())) {
+                    continue candidates;
+                }
+            }
+            if ((lowerName == null || (c.getName() != null && NgramIndex.fold(c.getName()).contains(lowerName)))  // Остаточные условия
+                    && (!checkBase || alcoholBase.equalsIgnoreCase(c.getAlcoholBase()))
+                    && (!checkDifficulty || difficulty.equalsIgnoreCase(c.getDifficulty()))
+                    && (!checkTime || preparationTime.contains(c.getPreparationTime()))
+                    && (!checkSteps || stepsDuration.contains(c.getTotalStepDuration()))) {
+                result.add(c);
+            }
+        }
+        if (candidates != cocktails) {                       // Кандидаты из индекса — возвращаем в порядке списка, как при переборе
+            sortInListOrder(result);
+        }
+        return result;
+    }
+
+    /**
+     * Выбирает план расширенного поиска по статистике индексов: ведущим становится индекс с наименьшей оценкой,
+     * остальные индексы, отсекающие хотя бы половину каталога, проверяются по ID, прочие условия — на коктейле
+     */
+    public QueryPlan planFindCocktails(String nameFragment, String alcoholBase, String difficulty) {
+        return planFindCocktails(nameFragment, alcoholBase, difficulty, null, null);
+    }
+
+    /**
+     * То же с диапазонами времени: число коктейлей в диапазоне индекс знает точно (два двоичных поиска)
+     */
+    public synchronized QueryPlan planFindCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                                    TimeRange preparationTime, TimeRange stepsDuration) {
+        int total = cocktails.size();
+        List<QueryPlan.Step> paths = new ArrayList<>();      // Доступные индексы с оценкой числа кандидатов
+        if (!isBlank(alcoholBase)) {
+            paths.add(new QueryPlan.Step(QueryPlan.Access.ALCOHOL_BASE_INDEX, alcoholBase,
+                    bucket(cocktailsByBase, alcoholBase).size()));  // Размер корзины — точная оценка
+        }
+        if (!isBlank(difficulty)) {
+            paths.add(new QueryPlan.Step(QueryPlan.Access.DIFFICULTY_INDEX, difficulty,
+                    bucket(cocktailsByDifficulty, difficulty).size()));
+        }
+        if (!isBlank(nameFragment) && nameIndex.estimate(nameFragment) >= 0) {  // Запросы короче триграммы индекс не обслуживает
+            paths.add(new QueryPlan.Step(QueryPlan.Access.NAME_NGRAM_INDEX, nameFragment,
+                    nameIndex.estimate(nameFragment)));      // Самый короткий список триграмм — верхняя оценка
+        }
+        if (preparationTime != null) {
+            paths.add(new QueryPlan.Step(QueryPlan.Access.PREPARATION_TIME_INDEX, preparationTime.toString(),
+                    preparationTimeIndex().count(preparationTime)));
+        }
+        if (stepsDuration != null) {
+            paths.add(new QueryPlan.Step(QueryPlan.Access.STEP_DURATION_INDEX, stepsDuration.toString(),
+                    stepDurationIndex().count(stepsDuration)));
+        }
+        paths.sort(Comparator.comparingInt(QueryPlan.Step::getEstimate));
+        QueryPlan.Step driver = new QueryPlan.Step(QueryPlan.Access.FULL_SCAN, null, total);
+        if (!paths.isEmpty() && paths.get(0).getEstimate() < total) {
+            driver = paths.remove(0);
+        }
+        List<QueryPlan.Step> probes = new ArrayList<>();
+        for (QueryPlan.Step path : paths) {
+            if (driver.getAccess() != QueryPlan.Access.FULL_SCAN
+                    && (double) path.getEstimate() / Math.max(1, total) <= PROBE_SELECTIVITY) {
+                probes.add(path);                            // Отсекает достаточно — проверяем по индексу до чтения коктейля
+            }
+        }
+        Set<QueryPlan.Access> indexed = EnumSet.of(driver.getAccess());  // Условия, которые уже обеспечены индексами
+        for (QueryPlan.Step probe : probes) {
+            indexed.add(probe.getAccess());
+        }
+        List<String> residuals = new ArrayList<>();
+        if (!isBlank(nameFragment)) {                        // Индекс названий даёт надмножество — подстроку проверяем всегда
+            residuals.add("название содержит \"" + nameFragment + "\"");
+        }
+        if (!isBlank(alcoholBase) && !indexed.contains(QueryPlan.Access.ALCOHOL_BASE_INDEX)) {
+            residuals.add("основа = \"" + alcoholBase + "\"");
+        }
+        if (!isBlank(difficulty) && !indexed.contains(QueryPlan.Access.DIFFICULTY_INDEX)) {
+            residuals.add("сложность = \"" + difficulty + "\"");
+        }
+        if (preparationTime != null && !indexed.contains(QueryPlan.Access.PREPARATION_TIME_INDEX)) {
+            residuals.add("время приготовления " + preparationTime);
+        }
+        if (stepsDuration != null && !indexed.contains(QueryPlan.Access.STEP_DURATION_INDEX)) {
+            residuals.add("длительность шагов " + stepsDuration);
+        }
+        List<String> statistics = Arrays.asList(
+                "основ: " + cocktailsByBase.size() + ", уровней сложности: " + cocktailsByDifficulty.size(),
+                "триграмм в индексе названий: " + nameIndex.gramCount());
+        return new QueryPlan(total, driver, probes, residuals, statistics);
+    }
+
+    @Override
+    public String explainFindCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                       TimeRange preparationTime, TimeRange stepsDuration) {
+        return planFindCocktails(nameFragment, alcoholBase, difficulty, preparationTime, stepsDuration).explain();
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsSorted(CocktailOrder order) {  // Порядок уже поддерживается — только копия
+        return sortedView(order).list();
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsSorted(CocktailOrder order, int offset, int limit) {
+        return sortedView(order).page(Math.max(offset, 0), Math.max(limit, 0));
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsSortedAfter(CocktailOrder order, Cocktail after, int limit) {
+        return sortedView(order).pageAfter(after, Math.max(limit, 0));  // Место продолжения — поиском в дереве
+    }
+
+    @Override
+    public List<Cocktail> getCocktailsPage(int offset, int limit) {  // Копируется только страница снимка
+        List<Cocktail> all = getSnapshot().getCocktails();
+        int from = Math.min(Math.max(offset, 0), all.size());
+        return new ArrayList<>(all.subList(from, (int) Math.min((long) from + Math.max(limit, 0), all.size())));
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    @Override
+    public synchronized List<String> getAlcoholBases() {     // Из счётчиков фасета — без перебора каталога
+        return baseFacet.values();
+    }
+
+    @Override
+    public synchronized List<String> getDifficulties() {
+        return difficultyFacet.values();
+    }
+
+    @Override
+    public synchronized Map<String, Integer> getAlcoholBaseCounts() {
+        return baseFacet.snapshot();
+    }
+
+    @Override
+    public synchronized Map<String, Integer> getDifficultyCounts() {
+        return difficultyFacet.snapshot();
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktailsFuzzy(String query, int maxDistance) {
+        List<Cocktail> result = new ArrayList<>();
+        for (int[] group : fuzzyIndex().search(query, Math.max(maxDistance, 0))) {  // Группы уже по возрастанию расстояния
+            List<Cocktail> cocktailsAtDistance = cocktailsByIds(group);
+            sortInListOrder(cocktailsAtDistance);
+            result.addAll(cocktailsAtDistance);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Suggestion> suggest(String prefix, int limit) {
+        if (typeahead == null) {                             // Как и остальные словари — при первом обращении
+            typeahead = TypeaheadIndex.of(cocktails);
+        }
+        return typeahead.suggest(prefix, limit);
+    }
+
+    @Override
+    public synchronized List<TextMatch> searchText(String query, int limit) {
+        List<TextMatch> matches = new ArrayList<>();
+        for (FullTextIndex.Hit hit : textIndex().search(query, limit)) {
+            matches.add(new TextMatch(cocktailsById.get(hit.getId()), hit.getScore()));
+        }
+        return matches;
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktailsByIngredient(String ingredientFragment) {
+        List<Cocktail> result = cocktailsByIds(ingredientIndex().matching(IngredientIndex.normalize(ingredientFragment)));
+        sortInListOrder(result);
+        return result;
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktailsByIngredients(String query) {
+        IngredientQuery parsed = IngredientQuery.parse(query);  // Ошибка в запросе — IllegalArgumentException до обращения к индексу
+        IngredientIndex index = ingredientIndex();
+        List<Cocktail> result = cocktailsByIds(parsed.evaluate(index::matching, index::all));
+        sortInListOrder(result);
+        return result;
+    }
+
+    @Override
+    public synchronized List<BarMatch> findCocktailsForBar(Collection<String> inventory, int maxMissing) {
+        BarQueryEngine engine = barEngine();
+        long[] have = engine.inventoryMask(inventory);
+        List<BarMatch> matches = new ArrayList<>();
+        int[][] byMissing = engine.match(have, maxMissing);  // Группы уже идут по возрастанию недостающих
+        for (int missingCount = 0; missingCount < byMissing.length; missingCount++) {
+            List<Cocktail> group = cocktailsByIds(byMissing[missingCount]);
+            sortInListOrder(group);                          // Внутри группы — порядок списка
+            for (Cocktail cocktail : group) {
+                List<Ingredient> missing = new ArrayList<>();  // Состав читаем только у найденных коктейлей
+                if (missingCount > 0) {
+                    for (Ingredient ing : cocktail.getIngredients()) {
+                        if (ing.getName() != null && !engine.covers(have, ing.getName())) {
+                            missing.add(ing);
+                        }
+                    }
+                }
+                matches.add(new BarMatch(cocktail, missingCount, missing));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public synchronized void addCocktail(Cocktail cocktail) {  // Метод: добавляет новый коктейль
+        applyPutCocktail(cocktail);
+    }
+
+    @Override
+    public synchronized void updateCocktail(Cocktail cocktail) {  // Метод: обновляет существующий коктейль
+        applyReplaceCocktail(cocktail);
+    }
+
+    @Override
+    public synchronized void deleteCocktail(int id) {        // Метод: удаляет коктейль по ID
+        applyDeleteCocktail(id);
+    }
+
+    // ===== ОПЕРАЦИИ С ПОЛЬЗОВАТЕЛЯМИ =====
+
+    @Override
+    public List<User> getAllUsers() {                        // Метод: возвращает список всех пользователей (только для чтения)
+        return getSnapshot().getUsers();
+    }
+
+    @Override
+    public synchronized User getUserById(int id) {           // Метод: ищет пользователя по ID
+        return usersById.get(id);                            // Поиск по индексу; null — если не найден
+    }
+
+    @Override
+    public synchronized User getUserByUsername(String username) {  // Метод: ищет пользователя по имени
+        return usersByUsername.get(username);                // Имя сравнивается точно; null — если не найден
+    }
+
+    @Override
+    public synchronized void addUser(User user) {            // Метод: добавляет нового пользователя
+        applyPutUser(user);
+    }
+
+    @Override
+    public synchronized void updateUser(User user) {         // Метод: обновляет данные пользователя
+        applyReplaceUser(user);
+    }
+
+    @Override
+    public synchronized void deleteUser(int id) {            // Метод: удаляет пользователя по ID
+        applyDeleteUser(id);
+    }
+
+    // ===== РАБОТА С ОЦЕНКАМИ =====
+
+    @Override
+    public synchronized void saveUserRating(int userId, int cocktailId, int rating) {  // Метод: сохраняет оценку пользователя
+        applyRating(userId, cocktailId, rating);
+    }
+
+    @Override
+    public Integer getUserRating(int userId, int cocktailId) {  // Метод: возвращает оценку пользователя
+        User user = getUserById(userId);                     // Находим пользователя
+        if (user != null) {                                  // Если найден
+            return user.getRatingForCocktail(cocktailId);    // Возвращаем его оценку (может быть null)
+        }
+        return null;                                         // Пользователь не найден
+    }
+
+    protected void updateCocktailAverageRating(int cocktailId) {  // Обновляет средний рейтинг коктейля по сумме и числу оценок — O(1)
+        long[] total = ratingTotals.get(cocktailId);         // Агрегаты поддерживаются при каждой оценке — пользователей не перебираем
+        Cocktail cocktail = getCocktailById(cocktailId);     // Находим коктейль
+        if (cocktail != null) {                              // Если коктейль существует
+            cocktail.setAverageRating(average(total));       // Устанавливаем средний рейтинг (0, если оценок нет)
+            catalogVersion++;                                // Рейтинг входит в краткие представления результатов
+            SortedCocktailView byRating = sortedViews.get(CocktailOrder.RATING);
+            if (byRating != null) {
+                byRating.add(cocktail);                      // Переставляем одну запись вместо пересортировки
+            }
+            if (typeahead != null) {
+                typeahead.add(cocktail);                     // Вес подсказок зависит от рейтинга
+            }
+        }
+    }
+
+    /**
+     * Сверяет суммы и числа оценок с самими оценками пользователей и средние рейтинги коктейлей — с ними;
+     * расхождения исправляет. Возвращает число коктейлей, у которых что-то расходилось
+     * (оценки, изменённые в объекте User в обход saveUserRating, тоже находятся здесь)
+     */
+    @Override
+    public synchronized int reconcileRatings() {
+        Map<Integer, long[]> expected = collectRatingTotals();
+        Set<Integer> ids = new HashSet<>(expected.keySet());
+        ids.addAll(ratingTotals.keySet());
+        for (Cocktail cocktail : cocktails) {
+            ids.add(cocktail.getId());
+        }
+        int repaired = 0;
+        for (int id : ids) {
+            long[] actual = ratingTotals.get(id);
+            long[] correct = expected.get(id);
+            Cocktail cocktail = cocktailsById.get(id);
+            boolean totalsDiffer = !Arrays.equals(actual, correct);
+            boolean averageDiffers = cocktail != null && cocktail.getAverageRating() != average(correct);
+            if (!totalsDiffer && !averageDiffers) {
+                continue;
+            }
+            repaired++;
+            if (correct != null) {
+                ratingTotals.put(id, correct);
+            } else {
+                ratingTotals.remove(id);
+            }
+            updateCocktailAverageRating(id);                 // Переставит коктейль и в упорядоченных представлениях
+        }
+        if (repaired > 0) {
+            System.out.println("Исправлены рейтинги коктейлей: " + repaired);
+        }
+        return repaired;
+    }
+
+    protected void recalculateAverageRatings() {             // Пересчитывает средние рейтинги всех коктейлей за один проход по оценкам
+        rebuildRatingTotals();
+        for (Cocktail cocktail : cocktails) {
+            cocktail.setAverageRating(average(ratingTotals.get(cocktail.getId())));  // 0, если оценок нет
+        }
+        sortedViews.remove(CocktailOrder.RATING);            // Поменялись все рейтинги — перестроится при первом запросе
+        typeahead = null;
+        catalogVersion++;
+    }
+
+    // ===== ПРИМЕНЕНИЕ ИЗМЕНЕНИЙ В ПАМЯТИ =====
+    // Эти методы меняют только данные в памяти; наследники вызывают их и при восстановлении данных с диска.
+    // Добавление работает как "вставить или заменить", поэтому повторное применение безопасно.
+
+    protected void applyPutCocktail(Cocktail cocktail) {     // Вставляет коктейль или заменяет существующий с тем же ID
+        if (!applyReplaceCocktail(cocktail)) {               // Если коктейля с таким ID ещё нет
+            cocktailPositions.put(cocktail.getId(), cocktails.size());
+            cocktails.add(cocktail);                         // Добавляем в конец списка
+            cocktail.setAverageRating(average(ratingTotals.get(cocktail.getId())));  // Рейтинг — из агрегатов, а не из пришедшего объекта
+            indexCocktail(cocktail);
+        }
+    }
+
+    protected boolean applyReplaceCocktail(Cocktail cocktail) {  // Заменяет коктейль с тем же ID; false — если не найден
+        Integer position = cocktailPositions.get(cocktail.getId());
+        if (position == null) {                              // Коктейль не найден
+            return false;
+        }
+        unindexCocktail(cocktails.get(position));            // Основа и сложность могли измениться
+        cocktails.set(position, cocktail);                   // Заменяем старый объект на новый на том же месте
+        cocktail.setAverageRating(average(ratingTotals.get(cocktail.getId())));  // Форма редактирования не знает оценок — берём из агрегатов
+        indexCocktail(cocktail);
+        return true;
+    }
+
+    protected void applyDeleteCocktail(int id) {             // Удаляет коктейль из памяти
+        Integer position = cocktailPositions.remove(id);
+        if (position == null) {
+            return;
+        }
+        unindexCocktail(cocktails.remove((int) position));
+        for (int i = position; i < cocktails.size(); i++) {  // Коктейли после удалённого сдвинулись на одну позицию
+            cocktailPositions.put(cocktails.get(i).getId(), i);
+        }
+    }
+
+    protected void applyPutUser(User user) {                 // Вставляет пользователя или заменяет существующего
+        if (!applyReplaceUser(user)) {                       // Если пользователя с таким ID ещё нет
+            userPositions.put(user.getId(), users.size());
+            users.add(user);                                 // Добавляем в конец списка
+            indexUser(user);
+            changeUserRatings(Collections.emptyMap(), user.getRatings());  // Пользователь мог прийти уже с оценками
+        }
+    }
+
+    protected boolean applyReplaceUser(User user) {          // Заменяет пользователя с тем же ID; false — если не найден
+        Integer position = userPositions.get(user.getId());
+        if (position == null) {
+            return false;
+        }
+        User previous = users.get(position);
+        previous.getRatings().forEach(user.getRatings()::putIfAbsent);  // Профиль приходит без оценок — переносим прежние
+        unindexUser(previous);                               // Имя могло измениться
+        users.set(position, user);                           // Заменяем старые данные на новые
+        indexUser(user);
+        changeUserRatings(previous.getRatings(), user.getRatings());  // Обычно оценки те же — средние не трогаются
+        return true;
+    }
+
+    protected void applyDeleteUser(int id) {                 // Удаляет пользователя из памяти
+        Integer position = userPositions.remove(id);
+        if (position == null) {
+            return;
+        }
+        User removed = users.remove((int) position);
+        unindexUser(removed);
+        changeUserRatings(removed.getRatings(), Collections.emptyMap());  // Вместе с пользователем уходят его оценки — средние пересчитываются
+        for (int i = position; i < users.size(); i++) {      // Пользователи после удалённого сдвинулись
+            userPositions.put(users.get(i).getId(), i);
+        }
+    }
+
+    protected boolean applyRating(int userId, int cocktailId, int rating) {  // Применяет оценку; false — если пользователя нет
+        User user = getUserById(userId);                     // Находим пользователя по ID
+        if (user == null) {                                  // Пользователь не существует
+            return false;
+        }
+        Integer previous = user.getRatingForCocktail(cocktailId);  // Повторная оценка заменяет прежнюю
+        user.rateCocktail(cocktailId, rating);               // Сохраняем оценку в объекте User
+        adjustRatingTotal(cocktailId, previous, user.getRatingForCocktail(cocktailId));  // Оценка вне 1–5 не сохранится — разница 0
+        updateCocktailAverageRating(cocktailId);             // Пересчитываем средний рейтинг коктейля
+        return true;
+    }
+
+    private void changeUserRatings(Map<Integer, Integer> before, Map<Integer, Integer> after) {  // Оценки пользователя были before, стали after
+        Set<Integer> cocktailIds = new HashSet<>(before.keySet());
+        cocktailIds.addAll(after.keySet());
+        for (int cocktailId : cocktailIds) {
+            Integer removed = before.get(cocktailId);
+            Integer added = after.get(cocktailId);
+            if (!Objects.equals(removed, added)) {           // Средние пересчитываются только там, где оценка изменилась
+                adjustRatingTotal(cocktailId, removed, added);
+                updateCocktailAverageRating(cocktailId);
+            }
+        }
+    }
+
+    private void adjustRatingTotal(int cocktailId, Integer removed, Integer added) {  // Убирает одну оценку и/или добавляет другую
+        if (Objects.equals(removed, added)) {
+            return;
+        }
+        long[] total = ratingTotals.computeIfAbsent(cocktailId, id -> new long[2]);
+        if (removed != null) {
+            total[0] -= removed;
+            total[1]--;
+        }
+        if (added != null) {
+            total[0] += added;
+            total[1]++;
+        }
+        if (total[1] <= 0) {                                 // Оценок не осталось — запись не храним
+            ratingTotals.remove(cocktailId);
+        }
+    }
+
+    private void rebuildRatingTotals() {                     // Агрегаты заново по оценкам всех пользователей
+        ratingTotals.clear();
+        ratingTotals.putAll(collectRatingTotals());
+    }
+
+    private Map<Integer, long[]> collectRatingTotals() {     // Один проход по оценкам: ID коктейля → {сумма, количество}
+        Map<Integer, long[]> totals = new HashMap<>();
+        for (User user : users) {
+            for (Map.Entry<Integer, Integer> entry : user.getRatings().entrySet()) {
+                long[] total = totals.computeIfAbsent(entry.getKey(), id -> new long[2]);
+                total[0] += entry.getValue();
+                total[1]++;
+            }
+        }
+        return totals;
+    }
+
+    private static double average(long[] total) {            // Среднее по агрегатам; 0, если оценок нет
+        return total != null && total[1] > 0 ? (double) total[0] / total[1] : 0;
+    }
+
+    // ===== СНИМОК ДЛЯ ЧТЕНИЯ =====
+
+    /**
+     * Текущий снимок каталога. Изменение только помечает снимок устаревшим; новый собирается при первом чтении
+     * после него (один раз на серию изменений, а не на каждое) и публикуется целиком
+     */
+    @Override
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot;                  // Быстрый путь — без блокировки
+        return current != null ? current : publishSnapshot();
+    }
+
+    private synchronized CatalogSnapshot publishSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {                               // Другой читатель мог собрать его, пока мы ждали блокировку
+            CatalogSnapshot previous = published;
+            long version = ++snapshotVersion;
+            if (previous == null) {
+                current = CatalogSnapshot.of(version, cocktails, users);
+            } else {
+                current = previous;
+                if (cocktailsChanged) {                      // Неизменившийся список переходит в новый снимок без копии
+                    current = current.withCocktails(version, cocktails);
+                }
+                if (usersChanged) {
+                    current = current.withUsers(version, users);
+                }
+            }
+            cocktailsChanged = false;
+            usersChanged = false;
+            published = current;
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private void cocktailsChanged() {                        // Состав коктейлей изменился — снимок устарел
+        cocktailsChanged = true;
+        snapshot = null;
+    }
+
+    private void usersChanged() {
+        usersChanged = true;
+        snapshot = null;
+    }
+
+    // ===== ИНДЕКСЫ =====
+
+    /**
+     * Строит все индексы заново по спискам. Наследники вызывают его после того, как заполнили списки напрямую
+     * (например, при загрузке снимка); дальше индексы поддерживаются методами apply*.
+     */
+    protected void rebuildIndexes() {
+        cocktailPositions.clear();
+        cocktailsById.clear();
+        cocktailsByBase.clear();
+        cocktailsByDifficulty.clear();
+        baseFacet.clear();
+        difficultyFacet.clear();
+        nameIndex.clear();
+        ingredientIndex = null;                              // Перестроится при первом запросе
+        barEngine = null;
+        fuzzyIndex = null;
+        typeahead = null;
+        textIndex = null;
+        preparationTimeIndex = null;
+        stepDurationIndex = null;
+        sortedViews.clear();
+        indexedCocktailKeys.clear();
+        for (int i = 0; i < cocktails.size(); i++) {
+            cocktailPositions.put(cocktails.get(i).getId(), i);
+            indexCocktail(cocktails.get(i));
+        }
+        rebuildRatingTotals();                               // Списки пользователей могли прийти вместе с оценками
+        userPositions.clear();
+        usersById.clear();
+        usersByUsername.clear();
+        indexedUsernames.clear();
+        for (int i = 0; i < users.size(); i++) {
+            userPositions.put(users.get(i).getId(), i);
+            indexUser(users.get(i));
+        }
+    }
+
+    // Ключи запоминаются при индексации: объект могли изменить на месте до вызова update,
+    // и тогда его текущие поля уже не совпадают с теми, под которыми он лежит в индексах.
+
+    private void indexCocktail(Cocktail cocktail) {          // Добавляет коктейль во все индексы
+        int id = cocktail.getId();
+        String[] keys = {cocktail.getName(), cocktail.getAlcoholBase(), cocktail.getDifficulty()};
+        indexedCocktailKeys.put(id, keys);
+        cocktailsById.put(id, cocktail);
+        nameIndex.add(id, keys[0]);
+        addToBucket(cocktailsByBase, keys[1], cocktail);
+        addToBucket(cocktailsByDifficulty, keys[2], cocktail);
+        baseFacet.add(keys[1]);
+        difficultyFacet.add(keys[2]);
+        if (ingredientIndex != null) {
+            ingredientIndex.add(id, cocktail.getIngredients());
+        }
+        if (barEngine != null) {
+            barEngine.add(id, cocktail.getIngredients());
+        }
+        if (fuzzyIndex != null) {
+            fuzzyIndex.add(id, keys[0]);
+        }
+        if (typeahead != null) {
+            typeahead.add(cocktail);
+        }
+        if (textIndex != null) {
+            textIndex.add(id, FullTextIndex.fieldsOf(cocktail));
+        }
+        if (preparationTimeIndex != null) {
+            preparationTimeIndex.add(id, cocktail.getPreparationTime());
+        }
+        if (stepDurationIndex != null) {
+            stepDurationIndex.add(id, cocktail.getTotalStepDuration());
+        }
+        for (SortedCocktailView view : sortedViews.values()) {
+            view.add(cocktail);
+        }
+        catalogVersion++;                                    // Любое изменение коктейля проходит через индексацию; версия — после неё
+        cocktailsChanged();
+    }
+
+    private void unindexCocktail(Cocktail cocktail) {        // Убирает коктейль из всех индексов
+        int id = cocktail.getId();
+        String[] keys = indexedCocktailKeys.remove(id);
+        cocktailsById.remove(id);
+        if (keys != null) {
+            nameIndex.remove(id, keys[0]);
+            if (fuzzyIndex != null) {
+                fuzzyIndex.remove(id, keys[0]);
+            }
+            removeFromBucket(cocktailsByBase, keys[1], id);
+            removeFromBucket(cocktailsByDifficulty, keys[2], id);
+            baseFacet.remove(keys[1]);
+            difficultyFacet.remove(keys[2]);
+        }
+        if (ingredientIndex != null) {
+            ingredientIndex.remove(id);
+        }
+        if (barEngine != null) {
+            barEngine.remove(id);
+        }
+        if (typeahead != null) {
+            typeahead.remove(id);
+        }
+        if (textIndex != null) {
+            textIndex.remove(id);
+        }
+        if (preparationTimeIndex != null) {                  // Индекс помнит значение, под которым лежит ID
+            preparationTimeIndex.remove(id);
+        }
+        if (stepDurationIndex != null) {
+            stepDurationIndex.remove(id);
+        }
+        for (SortedCocktailView view : sortedViews.values()) {
+            view.remove(id);
+        }
+        catalogVersion++;
+        cocktailsChanged();
+    }
+
+    private IngredientIndex ingredientIndex() {              // Индекс ингредиентов; строится при первом обращении, а не при загрузке —
+        if (ingredientIndex == null) {                       // иначе пришлось бы сразу декодировать подробности всего каталога
+            IngredientIndex index = new IngredientIndex();
+            for (Cocktail cocktail : cocktails) {
+                index.add(cocktail.getId(), cocktail.getIngredients());
+            }
+            ingredientIndex = index;
+        }
+        return ingredientIndex;
+    }
+
+    private void indexUser(User user) {
+        usersById.put(user.getId(), user);
+        indexedUsernames.put(user.getId(), user.getUsername());
+        if (user.getUsername() != null) {
+            usersByUsername.putIfAbsent(user.getUsername(), user);  // При повторе имени находится первый, как и при переборе списка
+        }
+        usersChanged();
+    }
+
+    private void unindexUser(User user) {
+        usersById.remove(user.getId());
+        String username = indexedUsernames.remove(user.getId());
+        if (username != null) {
+            usersByUsername.remove(username, user);          // Только если имя указывает именно на этого пользователя
+        }
+        usersChanged();
+    }
+
+    private List<Cocktail> cocktailsByIds(int[] ids) {       // Коктейли по списку ID
+        List<Cocktail> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Cocktail cocktail = cocktailsById.get(id);
+            if (cocktail != null) {
+                result.add(cocktail);
+            }
+        }
+        return result;
+    }
+
+    private FuzzyNameIndex fuzzyIndex() {                    // BK-дерево названий; как и остальные словари — при первом обращении
+        if (fuzzyIndex == null) {
+            FuzzyNameIndex index = new FuzzyNameIndex();
+            for (Cocktail cocktail : cocktails) {
+                index.add(cocktail.getId(), indexedCocktailKeys.get(cocktail.getId())[0]);
+            }
+            fuzzyIndex = index;
+        }
+        return fuzzyIndex;
+    }
+
+    private FullTextIndex textIndex() {                      // Полнотекстовый индекс; тексты шагов — в подробностях, поэтому при первом обращении
+        if (textIndex == null) {
+            FullTextIndex index = new FullTextIndex();
+            for (Cocktail cocktail : cocktails) {
+                index.add(cocktail.getId(), FullTextIndex.fieldsOf(cocktail));
+            }
+            textIndex = index;
+        }
+        return textIndex;
+    }
+
+    private synchronized RangeIndex preparationTimeIndex() {  // Индекс времени; как и остальные словари — при первом обращении
+        if (preparationTimeIndex == null) {
+            RangeIndex index = new RangeIndex();
+            for (Cocktail cocktail : cocktails) {
+                index.addBulk(cocktail.getId(), cocktail.getPreparationTime());
+            }
+            index.finishBulk();                              // Одна сортировка вместо вставок по одной
+            preparationTimeIndex = index;
+        }
+        return preparationTimeIndex;
+    }
+
+    private synchronized RangeIndex stepDurationIndex() {    // Длительность шагов требует подробностей коктейля — тем более не при загрузке
+        if (stepDurationIndex == null) {
+            RangeIndex index = new RangeIndex();
+            for (Cocktail cocktail : cocktails) {
+                index.addBulk(cocktail.getId(), cocktail.getTotalStepDuration());
+            }
+            index.finishBulk();
+            stepDurationIndex = index;
+        }
+        return stepDurationIndex;
+    }
+
+    private BarQueryEngine barEngine() {                     // Маски составов; как и индекс ингредиентов — при первом обращении
+        if (barEngine == null) {
+            BarQueryEngine engine = new BarQueryEngine();
+            for (Cocktail cocktail : cocktails) {
+                engine.add(cocktail.getId(), cocktail.getIngredients());
+            }
+            barEngine = engine;
+        }
+        return barEngine;
+    }
+
+    private SortedCocktailView sortedView(CocktailOrder order) {  // Упорядоченный каталог; строится один раз, дальше поддерживается
+        SortedCocktailView view = sortedViews.get(order);
+        if (view == null) {
+            view = new SortedCocktailView(order);
+            for (Cocktail cocktail : cocktails) {
+                view.add(cocktail);
+            }
+            sortedViews.put(order, view);
+        }
+        return view;
+    }
+
+    private void sortInListOrder(List<Cocktail> items) {     // Порядок как в списке cocktails
+        int previous = -1;
+        for (Cocktail c : items) {                           // Обычно список упорядочен по ID и сортировать не нужно
+            int position = cocktailPositions.get(c.getId());
+            if (position < previous) {
+                items.sort(Comparator.comparingInt(item -> cocktailPositions.get(item.getId())));
+                return;
+            }
+            previous = position;
+        }
+    }
+
+    private static void addToBucket(Map<String, Map<Integer, Cocktail>> index, String value, Cocktail cocktail) {
+        if (value != null) {
+            index.computeIfAbsent(value.toLowerCase(), k -> new LinkedHashMap<>()).put(cocktail.getId(), cocktail);
+        }
+    }
+
+    private static void removeFromBucket(Map<String, Map<Integer, Cocktail>> index, String value, int id) {
+        if (value == null) {
+            return;
+        }
+        Map<Integer, Cocktail> bucket = index.get(value.toLowerCase());
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {                          // Пустые корзины не храним
+                index.remove(value.toLowerCase());
+            }
+        }
+    }
+
+    private static Map<Integer, Cocktail> bucket(Map<String, Map<Integer, Cocktail>> index, String value) {
+        Map<Integer, Cocktail> bucket = index.get(value.toLowerCase());
+        return bucket != null ? bucket : Collections.emptyMap();
+    }
+
+    private static boolean isBlank(String value) {           // Условие не задано
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Ingredient;                                     // Импорт модели ингредиента
+import utils.IntPostingList;                                  // Импорт отсортированного списка вхождений
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Инвертированный индекс ингредиентов: нормализованное название ингредиента → ID коктейлей по возрастанию.
+ *
+ * Различных названий ингредиентов немного (сотни), поэтому поиск по подстроке перебирает только словарь названий
+ * и объединяет списки подходящих; сами коктейли и их ингредиенты при запросе не читаются.
+ */
+public class IngredientIndex {                               // Публичный класс индекса ингредиентов
+
+    private final Map<String, IntPostingList> postings;      // Поле: название ингредиента → ID коктейлей
+    private final Map<Integer, Set<String>> indexedNames;    // Поле: ID → названия, под которыми коктейль лежит в индексе
+    private final IntPostingList allIds;                     // Поле: все проиндексированные ID (нужны для NOT)
+
+    public IngredientIndex() {
+        this.postings = new HashMap<>();
+        this.indexedNames = new HashMap<>();
+        this.allIds = new IntPostingList();
+    }
+
+    /**
+     * Приведение названия: нижний регистр, без лишних пробелов
+     */
+    public static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    public void add(int id, List<Ingredient> ingredients) {  // Индексирует ингредиенты коктейля
+        Set<String> names = new HashSet<>();
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient.getName() != null) {
+                names.add(normalize(ingredient.getName()));
+            }
+        }
+        indexedNames.put(id, names);
+        allIds.add(id);
+        for (String name : names) {
+            postings.computeIfAbsent(name, n -> new IntPostingList()).add(id);
+        }
+    }
+
+    public void remove(int id) {                             // Убирает коктейль из индекса
+        Set<String> names = indexedNames.remove(id);
+        if (names == null) {
+            return;
+        }
+        allIds.remove(id);
+        for (String name : names) {
+            IntPostingList list = postings.get(name);
+            if (list != null && list.remove(id) && list.isEmpty()) {
+                postings.remove(name);                       // Пустые списки не храним
+            }
+        }
+    }
+
+    /**
+     * ID коктейлей, у которых название хотя бы одного ингредиента содержит нормализованный фрагмент
+     */
+    public int[] matching(String fragment) {
+        int[] result = new int[0];
+        for (Map.Entry<String, IntPostingList> entry : postings.entrySet()) {  // Перебираем словарь, а не коктейли
+            if (entry.getKey().contains(fragment)) {
+                result = IntPostingList.union(result, entry.getValue().toArray());
+            }
+        }
+        return result;
+    }
+
+    public int[] all() {                                     // Все проиндексированные ID
+        return allIds.toArray();
+    }
+}
@@ -0,0 +1,328 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import utils.IntPostingList;                                  // Импорт операций над отсортированными массивами ID
+import java.util.*;                                          // Импорт коллекций
+import java.util.function.Function;                          // Импорт функции «термин → ID»
+import java.util.function.Predicate;                         // Импорт предиката «есть ли термин у коктейля»
+import java.util.function.Supplier;                          // Импорт поставщика множества всех ID
+
+/**
+ * Разобранный запрос по ингредиентам, например {@code лайм AND ром NOT сахар} или {@code (джин OR водка) AND тоник}.
+ *
+ * Операторы: AND/И, OR/ИЛИ, NOT/НЕ (регистр не важен), скобки. Приоритет: NOT выше AND, AND выше OR.
+ * Соседние слова образуют один термин ({@code сок лайма}); термин в кавычках берётся как есть.
+ * NOT между терминами означает «И НЕ». Термин совпадает с ингредиентом, если содержится в его названии.
+ */
+public class IngredientQuery {                               // Публичный класс запроса
+
+    private final Node root;                                 // Поле: корень дерева запроса
+
+    private IngredientQuery(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Разбирает текст запроса
+     * @throws IllegalArgumentException если запрос пустой или в нём ошибка
+     */
+    public static IngredientQuery parse(String text) {
+        Parser parser = new Parser(tokenize(text == null ? "" : text));
+        if (parser.atEnd()) {
+            throw new IllegalArgumentException("Пустой запрос по ингредиентам");
+        }
+        Node root = parser.parseOr();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Лишний текст в запросе: " + parser.peek());
+        }
+        return new IngredientQuery(root);
+    }
+
+    /**
+     * Проверяет запрос на одном коктейле
+     * @param hasTerm есть ли у коктейля ингредиент с нормализованным фрагментом в названии
+     */
+    public boolean matches(Predicate<String> hasTerm) {
+        return root.matches(hasTerm);
+    }
+
+    /**
+     * Вычисляет запрос по индексу
+     * @param postings ID по возрастанию для нормализованного термина
+     * @param universe все ID по возрастанию (для NOT)
+     * @return подходящие ID по возрастанию
+     */
+    public int[] evaluate(Function<String, int[]> postings, Supplier<int[]> universe) {
+        return root.evaluate(postings, universe);
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+
+    // ===== ДЕРЕВО ЗАПРОСА =====
+
+    private interface Node {
+        boolean matches(Predicate<String> hasTerm);
+
+        int[] evaluate(Function<String, int[]> postings, Supplier<int[]> universe);
+    }
+
+    private static class Term implements Node {              // Один термин — фрагмент названия ингредиента
+        private final String fragment;
+
+        Term(String fragment) {
+            this.fragment = IngredientIndex.normalize(fragment);
+        }
+
+        @Override
+        public boolean matches(Predicate<String> hasTerm) {
+            return hasTerm.test(fragment);
+        }
+
+        @Override
+        public int[] evaluate(Function<String, int[]> postings, Supplier<int[]> universe) {
+            return postings.apply(fragment);
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + fragment + "\"";
+        }
+    }
+
+    private static class Not implements Node {
+        private final Node operand;
+
+        Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean matches(Predicate<String> hasTerm) {
+            return !operand.matches(hasTerm);
+        }
+
+        @Override
+        public int[] evaluate(Function<String, int[]> postings, Supplier<int[]> universe) {
+            return IntPostingList.difference(universe.get(), operand.evaluate(postings, universe));
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + operand;
+        }
+    }
+
+    private static class And implements Node {
+        private final List<Node> operands;
+
+        And(List<Node> operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean matches(Predicate<String> hasTerm) {
+            for (Node operand : operands) {
+                if (!operand.matches(hasTerm)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int[] evaluate(Function<String, int[]> postings, Supplier<int[]> universe) {
+            List<int[]> included = new ArrayList<>();        // Обычные операнды — пересекаем
+            List<int[]> excluded = new ArrayList<>();        // Операнды под NOT — вычитаем, без обращения ко всему множеству
+            for (Node operand : operands) {
+                if (operand instanceof Not) {
+                    excluded.add(((Not) operand).operand.evaluate(postings, universe));
+                } else {
+                    included.add(operand.evaluate(postings, universe));
+                }
+            }
+            included.sort(Comparator.comparingInt(ids -> ids.length));  // Сначала самый короткий — дальше результат только меньше
+            int[] result = included.isEmpty() ? universe.get() : included.get(0);
+            for (int i = 1; i < included.size() && result.length > 0; i++) {
+                result = IntPostingList.intersect(result, included.get(i));
+            }
+            for (int i = 0; i < excluded.size() && result.length > 0; i++) {
+                result = IntPostingList.difference(result, excluded.get(i));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " AND ");
+        }
+    }
+
+    private static class Or implements Node {
+        private final List<Node> operands;
+
+        Or(List<Node> operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean matches(Predicate<String> hasTerm) {
+            for (Node operand : operands) {
+                if (operand.matches(hasTerm)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int[] evaluate(Function<String, int[]> postings, Supplier<int[]> universe) {
+            int[] result = new int[0];
+            for (Node operand : operands) {
+                result = IntPostingList.union(result, operand.evaluate(postings, universe));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " OR ");
+        }
+    }
+
+    private static String join(List<Node> operands, String separator) {
+        StringJoiner joiner = new StringJoiner(separator, "(", ")");
+        for (Node operand : operands) {
+            joiner.add(operand.toString());
+        }
+        return joiner.toString();
+    }
+
+    // ===== РАЗБОР =====
+
+    private static final String AND = "AND";                 // Служебные токены
+    private static final String OR = "OR";
+    private static final String NOT = "NOT";
+    private static final String OPEN = "(";
+    private static final String CLOSE = ")";
+
+    private static List<String[]> tokenize(String text) {    // Токен — {вид, текст}; вид: AND, OR, NOT, (, ), WORD
+        List<String[]> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (ch == '(' || ch == ')') {
+                tokens.add(new String[]{String.valueOf(ch), String.valueOf(ch)});
+                i++;
+            } else if (ch == '"') {                          // Термин в кавычках
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Не закрыта кавычка в запросе");
+                }
+                tokens.add(new String[]{"QUOTED", text.substring(i + 1, end)});
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i))
+                        && "()\"".indexOf(text.charAt(i)) < 0) {
+                    i++;
+                }
+                String word = text.substring(start, i);
+                tokens.add(new String[]{operatorKind(word), word});
+            }
+        }
+        return tokens;
+    }
+
+    private static String operatorKind(String word) {        // Вид слова: оператор (на английском или русском) или обычное слово
+        switch (word.toUpperCase()) {
+            case "AND":
+            case "И":
+                return AND;
+            case "OR":
+            case "ИЛИ":
+                return OR;
+            case "NOT":
+            case "НЕ":
+                return NOT;
+            default:
+                return "WORD";
+        }
+    }
+
+    private static class Parser {                            // Рекурсивный спуск по токенам
+        private final List<String[]> tokens;
+        private int position;
+
+        Parser(List<String[]> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return position == tokens.size();
+        }
+
+        String peek() {
+            return tokens.get(position)[1];
+        }
+
+        private boolean at(String kind) {
+            return !atEnd() && tokens.get(position)[0].equals(kind);
+        }
+
+        Node parseOr() {                                     // or := and (OR and)*
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (at(OR)) {
+                position++;
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+        Node parseAnd() {                                    // and := unary ((AND | NOT | "(" | термин) unary)*
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseUnary());
+            while (!atEnd() && !at(OR) && !at(CLOSE)) {
+                if (at(AND)) {
+                    position++;
+                }
+                operands.add(parseUnary());                  // NOT без AND — это «И НЕ»: его разберёт parseUnary
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        Node parseUnary() {                                  // unary := NOT unary | ( or ) | термин
+            if (atEnd()) {
+                throw new IllegalArgumentException("Запрос обрывается после оператора");
+            }
+            if (at(NOT)) {
+                position++;
+                return new Not(parseUnary());
+            }
+            if (at(OPEN)) {
+                position++;
+                Node inner = parseOr();
+                if (!at(CLOSE)) {
+                    throw new IllegalArgumentException("Не закрыта скобка в запросе");
+                }
+                position++;
+                return inner;
+            }
+            if (at("QUOTED")) {
+                return new Term(tokens.get(position++)[1]);
+            }
+            if (!at("WORD")) {
+                throw new IllegalArgumentException("Ожидалось название ингредиента, а не " + peek());
+            }
+            StringBuilder phrase = new StringBuilder(tokens.get(position++)[1]);
+            while (at("WORD")) {                             // Соседние слова — одно название
+                phrase.append(' ').append(tokens.get(position++)[1]);
+            }
+            return new Term(phrase.toString());
+        }
+    }
+}
@@ -0,0 +1,678 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.CocktailSummary;                               // Импорт краткого представления коктейля
+import models.Ingredient;                                     // Импорт модели ингредиента
+import models.PreparationStep;                                // Импорт модели шага приготовления
+import models.Suggestion;                                     // Импорт подсказки при вводе
+import models.User;                                          // Импорт модели пользователя
+import java.sql.*;                                            // Импорт JDBC (Connection, PreparedStatement, ResultSet)
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Хранилище во встроенной SQL-базе, которая лежит в локальном файле (H2 или SQLite через JDBC).
+ * Драйвер берётся из classpath во время запуска, сервер не нужен.
+ *
+ * Поиск, сортировка и выборка по ID выполняются запросами к индексированным столбцам,
+ * а не перебором в памяти. Для сравнения без учёта регистра хранятся отдельные столбцы *_key
+ * в нижнем регистре — по ним строятся индексы.
+ */
+public class JdbcRepository implements DataRepository {     // Публичный класс SQL-хранилища
+
+    public static final String DEFAULT_URL = "jdbc:h2:./resources/data/cocktails-db";  // Константа: файл базы H2 рядом с остальными данными
+
+    private static final String COCKTAIL_COLUMNS =          // Константа: столбцы коктейля в порядке чтения
+            "c.id, c.name, c.description, c.alcohol_base, c.difficulty, c.preparation_time, c.image_url, c.average_rating";
+
+    private static final String SUMMARY_COLUMNS =           // Константа: столбцы краткого представления (без описания)
+            "c.id, c.name, c.alcohol_base, c.difficulty, c.preparation_time, c.average_rating, c.image_url";
+
+    private static final String AVERAGE_SUBQUERY =          // Константа: средний рейтинг коктейля по таблице оценок (0, если оценок нет)
+            "COALESCE((SELECT AVG(CAST(r.rating AS DOUBLE)) FROM ratings r WHERE r.cocktail_id = cocktails.id), 0)";
+
+    private static final String[] SCHEMA = {                 // Константа: схема базы (только переносимый SQL — работает в H2 и SQLite)
+            "CREATE TABLE IF NOT EXISTS cocktails (id INTEGER PRIMARY KEY, name VARCHAR(1000), name_key VARCHAR(1000), "
+                    + "description VARCHAR(65535), alcohol_base VARCHAR(255), base_key VARCHAR(255), "
+                    + "difficulty VARCHAR(255), difficulty_key VARCHAR(255), preparation_time INTEGER, "
+                    + "image_url VARCHAR(1000), average_rating DOUBLE)",
+            "CREATE TABLE IF NOT EXISTS ingredients (cocktail_id INTEGER NOT NULL, ord INTEGER NOT NULL, "
+                    + "name VARCHAR(1000), name_key VARCHAR(1000), quantity DOUBLE, unit VARCHAR(255), "
+                    + "PRIMARY KEY (cocktail_id, ord))",
+            "CREATE TABLE IF NOT EXISTS steps (cocktail_id INTEGER NOT NULL, ord INTEGER NOT NULL, step_number INTEGER, "
+                    + "description VARCHAR(65535), tips VARCHAR(65535), duration INTEGER, PRIMARY KEY (cocktail_id, ord))",
+            "CREATE TABLE IF NOT EXISTS users (id INTEGER PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255), password_hash VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS ratings (user_id INTEGER NOT NULL, cocktail_id INTEGER NOT NULL, "
+                    + "rating INTEGER NOT NULL, PRIMARY KEY (user_id, cocktail_id))",
+            "CREATE INDEX IF NOT EXISTS idx_cocktails_base ON cocktails (base_key)",
+            "CREATE INDEX IF NOT EXISTS idx_cocktails_difficulty ON cocktails (difficulty_key)",
+            "CREATE INDEX IF NOT EXISTS idx_cocktails_time ON cocktails (preparation_time)",
+            "CREATE INDEX IF NOT EXISTS idx_cocktails_rating ON cocktails (average_rating)",
+            "CREATE INDEX IF NOT EXISTS idx_cocktails_difficulty_sort ON cocktails (difficulty)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_users_username ON users (username)",
+            "CREATE INDEX IF NOT EXISTS idx_ratings_cocktail ON ratings (cocktail_id)"
+    };
+
+    private final Connection connection;                     // Поле: единственное соединение с базой (доступ к нему синхронизирован)
+    private volatile long catalogVersion;                    // Поле: версия каталога — растёт после каждой записи
+
+    public JdbcRepository(String url) throws SQLException {  // Конструктор — открывает базу и создаёт схему, если её ещё нет
+        this.connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        }
+    }
+
+    /**
+     * Пуста ли база (нет ни коктейлей, ни пользователей) — тогда в неё имеет смысл перенести данные из файлов
+     */
+    public synchronized boolean isEmpty() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT (SELECT COUNT(*) FROM cocktails) + (SELECT COUNT(*) FROM users)")) {
+            return rs.next() && rs.getLong(1) == 0;
+        }
+    }
+
+    /**
+     * Переносит все данные из другого хранилища одной транзакцией
+     */
+    public synchronized void importFrom(DataRepository source) {
+        inTransaction(() -> {
+            for (Cocktail cocktail : source.getAllCocktails()) {
+                insertCocktail(cocktail);
+            }
+            for (User user : source.getAllUsers()) {
+                insertUser(user);
+                for (Map.Entry<Integer, Integer> entry : user.getRatings().entrySet()) {
+                    upsertRating(user.getId(), entry.getKey(), entry.getValue());
+                }
+            }
+            update("UPDATE cocktails SET average_rating = " + AVERAGE_SUBQUERY);  // Средние рейтинги — из оценок
+        });
+    }
+
+    // ===== КОКТЕЙЛИ =====
+
+    @Override
+    public synchronized List<Cocktail> getAllCocktails() {
+        return queryCocktails("1 = 1", "c.id");
+    }
+
+    @Override
+    public synchronized Cocktail getCocktailById(int id) {  // Поиск по первичному ключу
+        List<Cocktail> found = queryCocktails("c.id = ?", "c.id", id);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    public synchronized void addCocktail(Cocktail cocktail) {  // Вставить или заменить
+        inTransaction(() -> {
+            deleteCocktailRows(cocktail.getId());
+            insertCocktail(cocktail);
+        });
+    }
+
+    @Override
+    public synchronized void updateCocktail(Cocktail cocktail) {  // Заменяет только существующий коктейль
+        inTransaction(() -> {
+            if (deleteCocktailRows(cocktail.getId()) > 0) {
+                insertCocktail(cocktail);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void deleteCocktail(int id) {
+        inTransaction(() -> deleteCocktailRows(id));
+    }
+
+    // ===== ПОИСК И СОРТИРОВКА =====
+
+    @Override
+    public synchronized List<CocktailSummary> getCocktailSummaries() {  // Только краткие столбцы — ингредиенты и шаги не читаются
+        return querySummaries("1 = 1");
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                                     TimeRange preparationTime, TimeRange stepsDuration) {
+        List<Object> params = new ArrayList<>();
+        String where = searchCondition(nameFragment, alcoholBase, difficulty, preparationTime, stepsDuration, params);
+        return queryCocktails(where, "c.id", params.toArray());
+    }
+
+    @Override
+    public synchronized List<CocktailSummary> findCocktailSummaries(String nameFragment, String alcoholBase, String difficulty,
+                                                                    TimeRange preparationTime, TimeRange stepsDuration) {
+        List<Object> params = new ArrayList<>();
+        String where = searchCondition(nameFragment, alcoholBase, difficulty, preparationTime, stepsDuration, params);
+        return querySummaries(where, params.toArray());
+    }
+
+    @Override
+    public synchronized String explainFindCocktails(String nameFragment, String alcoholBase, String difficulty,
+                                                    TimeRange preparationTime, TimeRange stepsDuration) {
+        List<Object> params = new ArrayList<>();
+        String where = searchCondition(nameFragment, alcoholBase, difficulty, preparationTime, stepsDuration, params);
+        String select = "SELECT " + SUMMARY_COLUMNS + " FROM cocktails c WHERE " + where + " ORDER BY c.id";
+        StringBuilder plan = new StringBuilder();
+        try {
+            boolean sqlite = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("sqlite");
+            try (PreparedStatement statement = prepare((sqlite ? "EXPLAIN QUERY PLAN " : "EXPLAIN ") + select, params.toArray());
+                 ResultSet rs = statement.executeQuery()) {  // План строит сама база; текст — в последнем столбце
+                while (rs.next()) {
+                    plan.append(rs.getString(rs.getMetaData().getColumnCount())).append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при построении плана: " + e.getMessage());
+        }
+        return plan.toString();
+    }
+
+    private static String searchCondition(String nameFragment, String alcoholBase, String difficulty,
+                                          TimeRange preparationTime, TimeRange stepsDuration,
+                                          List<Object> params) {  // Условие WHERE расширенного поиска; параметры дописываются в params
+        StringBuilder where = new StringBuilder("1 = 1");    // Условия добавляются только для заданных параметров
+        if (nameFragment != null && !nameFragment.isEmpty()) {
+            where.append(" AND c.name_key LIKE ? ESCAPE '\\'");
+            params.add(likePattern(nameFragment));
+        }
+        if (alcoholBase != null && !alcoholBase.isEmpty()) {
+            where.append(" AND c.base_key = ?");             // Индекс idx_cocktails_base
+            params.add(alcoholBase.toLowerCase());
+        }
+        if (difficulty != null && !difficulty.isEmpty()) {
+            where.append(" AND c.difficulty_key = ?");       // Индекс idx_cocktails_difficulty
+            params.add(difficulty.toLowerCase());
+        }
+        if (preparationTime != null) {
+            where.append(" AND c.preparation_time BETWEEN ? AND ?");  // Индекс idx_cocktails_time
+            params.add(preparationTime.getMin());
+            params.add(preparationTime.getMax());
+        }
+        if (stepsDuration != null) {                         // Сумма по шагам — подзапрос по первичному ключу steps; секунды → минуты вверх, как в getTotalStepDuration
+            where.append(" AND (SELECT (COALESCE(SUM(s.duration), 0) + 59) / 60 FROM steps s WHERE s.cocktail_id = c.id) BETWEEN ? AND ?");
+            params.add(stepsDuration.getMin());
+            params.add(stepsDuration.getMax());
+        }
+        return where.toString();
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktailsByIngredient(String ingredientFragment) {
+        return queryCocktails("c.id IN (SELECT i.cocktail_id FROM ingredients i WHERE i.name_key LIKE ? ESCAPE '\\')",
+                "c.id", likePattern(IngredientIndex.normalize(ingredientFragment)));  // Ключ ингредиента нормализован так же
+    }
+
+    @Override
+    public synchronized List<Cocktail> findCocktailsByMaxPreparationTime(int maxTime) {
+        return queryCocktails("c.preparation_time <= ?", "c.id", maxTime);  // Индекс idx_cocktails_time; порядок — как у остальных списков
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsSorted(CocktailOrder order) {
+        String orderBy = orderBy(order);                     // Сортирует база (по индексам idx_cocktails_*)
+        return orderBy != null ? queryCocktails("1 = 1", orderBy) : DataRepository.super.getCocktailsSorted(order);
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsSorted(CocktailOrder order, int offset, int limit) {
+        String orderBy = orderBy(order);
+        if (orderBy == null) {
+            return DataRepository.super.getCocktailsSorted(order, offset, limit);
+        }
+        return queryCocktails("c.id IN (SELECT id FROM cocktails c ORDER BY " + orderBy + " LIMIT ? OFFSET ?)",  // Страницу выбирает база
+                orderBy, Math.max(limit, 0), Math.max(offset, 0));
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsSortedAfter(CocktailOrder order, Cocktail after, int limit) {
+        String condition;                                    // «Строка c идёт после ключа» — продолжение без OFFSET
+        Object[] params;
+        switch (order) {
+            case DIFFICULTY:
+                if (after.getDifficulty() == null) {         // NULL идут первыми, как в ORDER BY обеих баз
+                    condition = "c.difficulty IS NOT NULL OR c.id > ?";
+                    params = new Object[]{after.getId()};
+                } else {
+                    condition = "c.difficulty > ? OR (c.difficulty = ? AND c.id > ?)";
+                    params = new Object[]{after.getDifficulty(), after.getDifficulty(), after.getId()};
+                }
+                break;
+            case PREPARATION_TIME:
+                condition = "c.preparation_time > ? OR (c.preparation_time = ? AND c.id > ?)";
+                params = new Object[]{after.getPreparationTime(), after.getPreparationTime(), after.getId()};
+                break;
+            case RATING:
+                condition = "c.average_rating < ? OR (c.average_rating = ? AND c.id > ?)";
+                params = new Object[]{after.getAverageRating(), after.getAverageRating(), after.getId()};
+                break;
+            default:
+                return DataRepository.super.getCocktailsSortedAfter(order, after, limit);
+        }
+        Object[] withLimit = Arrays.copyOf(params, params.length + 1);
+        withLimit[params.length] = Math.max(limit, 0);
+        String orderBy = orderBy(order);
+        return queryCocktails("c.id IN (SELECT id FROM cocktails c WHERE " + condition + " ORDER BY " + orderBy + " LIMIT ?)",
+                orderBy, withLimit);
+    }
+
+    @Override
+    public synchronized List<Cocktail> getCocktailsPage(int offset, int limit) {
+        return queryCocktails("c.id IN (SELECT id FROM cocktails ORDER BY id LIMIT ? OFFSET ?)", "c.id",
+                Math.max(limit, 0), Math.max(offset, 0));
+    }
+
+    private static String orderBy(CocktailOrder order) {    // ORDER BY для порядка; null — неизвестный порядок
+        switch (order) {
+            case DIFFICULTY:
+                return "c.difficulty, c.id";
+            case PREPARATION_TIME:
+                return "c.preparation_time, c.id";
+            case RATING:
+                return "c.average_rating DESC, c.id";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public long getCatalogVersion() {                        // Учитываются только изменения через этот объект
+        return catalogVersion;
+    }
+
+    @Override
+    public synchronized List<String> getAlcoholBases() {
+        return queryStrings("SELECT DISTINCT alcohol_base FROM cocktails WHERE alcohol_base IS NOT NULL ORDER BY alcohol_base");
+    }
+
+    @Override
+    public synchronized List<String> getDifficulties() {
+        return queryStrings("SELECT DISTINCT difficulty FROM cocktails WHERE difficulty IS NOT NULL ORDER BY difficulty");
+    }
+
+    @Override
+    public synchronized Map<String, Integer> getAlcoholBaseCounts() {
+        Map<String, Integer> counts = new TreeMap<>();       // Порядок как у getAlcoholBases в памяти — по алфавиту Java
+        counts.putAll(queryCounts("SELECT alcohol_base, COUNT(*) FROM cocktails WHERE alcohol_base IS NOT NULL "
+                + "GROUP BY alcohol_base"));
+        return counts;
+    }
+
+    @Override
+    public synchronized Map<String, Integer> getDifficultyCounts() {
+        Map<String, Integer> counts = new TreeMap<>();       // Порядок как у getDifficulties в памяти — по алфавиту Java
+        counts.putAll(queryCounts("SELECT difficulty, COUNT(*) FROM cocktails WHERE difficulty IS NOT NULL "
+                + "GROUP BY difficulty"));
+        return counts;
+    }
+
+    @Override
+    public synchronized List<Suggestion> suggest(String prefix, int limit) {
+        List<Suggestion> result = new ArrayList<>();
+        String start = likePattern(prefix.trim().replace('ё', 'е').replace('Ё', 'Е')).substring(1);  // «префикс%»
+        if (start.equals("%")) {
+            return result;
+        }
+        String word = "% " + start;                          // Начало одного из следующих слов
+        String nameKey = "REPLACE(c.name_key, 'ё', 'е')";   // «ё» и «е» не различаются, как и в памяти
+        querySuggestions(result, Suggestion.Kind.COCKTAIL, "SELECT MIN(c.name), SUM(c.average_rating), COUNT(*) "
+                + "FROM cocktails c WHERE " + nameKey + " LIKE ? ESCAPE '\\' OR " + nameKey + " LIKE ? ESCAPE '\\' "
+                + "GROUP BY " + nameKey + " ORDER BY 2 DESC, 3 DESC, " + nameKey + " LIMIT ?", start, word, Math.max(limit, 0));
+        querySuggestions(result, Suggestion.Kind.INGREDIENT,  // Повтор ингредиента в одном рецепте считается один раз
+                "SELECT (SELECT MIN(i.name) FROM ingredients i WHERE REPLACE(i.name_key, 'ё', 'е') = k.name_key), "
+                + "SUM(c.average_rating), COUNT(*) "
+                + "FROM (SELECT DISTINCT cocktail_id, REPLACE(name_key, 'ё', 'е') AS name_key FROM ingredients "
+                + "WHERE REPLACE(name_key, 'ё', 'е') LIKE ? ESCAPE '\\' OR REPLACE(name_key, 'ё', 'е') LIKE ? ESCAPE '\\') k "
+                + "JOIN cocktails c ON c.id = k.cocktail_id "
+                + "GROUP BY k.name_key ORDER BY 2 DESC, 3 DESC, k.name_key LIMIT ?", start, word, Math.max(limit, 0));
+        return result;
+    }
+
+    private void querySuggestions(List<Suggestion> result, Suggestion.Kind kind, String sql, Object... params) {
+        try (PreparedStatement statement = prepare(sql, params);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                result.add(new Suggestion(rs.getString(1), kind, rs.getDouble(2)));
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при поиске подсказок: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized int getNextCocktailId() {
+        return queryInt("SELECT COALESCE(MAX(id), 0) + 1 FROM cocktails");
+    }
+
+    @Override
+    public synchronized int getNextUserId() {
+        return queryInt("SELECT COALESCE(MAX(id), 0) + 1 FROM users");
+    }
+
+    // ===== ПОЛЬЗОВАТЕЛИ И ОЦЕНКИ =====
+
+    @Override
+    public synchronized List<User> getAllUsers() {
+        return queryUsers("1 = 1");
+    }
+
+    @Override
+    public synchronized User getUserById(int id) {
+        List<User> found = queryUsers("u.id = ?", id);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    public synchronized User getUserByUsername(String username) {  // Индекс idx_users_username
+        List<User> found = queryUsers("u.username = ?", username);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    public synchronized void addUser(User user) {
+        inTransaction(() -> {
+            update("DELETE FROM users WHERE id = ?", user.getId());
+            insertUser(user);
+            for (Map.Entry<Integer, Integer> entry : user.getRatings().entrySet()) {  // Оценки, пришедшие вместе с пользователем
+                upsertRating(user.getId(), entry.getKey(), entry.getValue());
+                updateAverageRating(entry.getKey());
+            }
+        });
+    }
+
+    @Override
+    public synchronized void updateUser(User user) {         // Меняется только профиль — оценки хранятся отдельно
+        inTransaction(() -> update("UPDATE users SET username = ?, email = ?, password_hash = ? WHERE id = ?",
+                user.getUsername(), user.getEmail(), user.getPasswordHash(), user.getId()));
+    }
+
+    @Override
+    public synchronized void deleteUser(int id) {
+        inTransaction(() -> {
+            List<Integer> rated = new ArrayList<>();         // Коктейли, чей средний рейтинг изменится
+            try (PreparedStatement statement = prepare("SELECT cocktail_id FROM ratings WHERE user_id = ?", id);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rated.add(rs.getInt(1));
+                }
+            }
+            update("DELETE FROM ratings WHERE user_id = ?", id);
+            update("DELETE FROM users WHERE id = ?", id);
+            for (int cocktailId : rated) {
+                updateAverageRating(cocktailId);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void saveUserRating(int userId, int cocktailId, int rating) {
+        if (rating < 1 || rating > 5) {                      // Как и User.rateCocktail — оценки вне диапазона игнорируются
+            return;
+        }
+        inTransaction(() -> {
+            if (queryInt("SELECT COUNT(*) FROM users WHERE id = ?", userId) == 0) {  // Пользователь не существует
+                return;
+            }
+            upsertRating(userId, cocktailId, rating);
+            updateAverageRating(cocktailId);                 // Пересчёт одним запросом по индексу idx_ratings_cocktail
+        });
+    }
+
+    @Override
+    public synchronized int reconcileRatings() {             // Одним запросом: только строки, где сохранённое среднее расходится с оценками
+        int[] repaired = new int[1];                         // Допуск — H2 считает AVG точнее, чем хранит DOUBLE
+        inTransaction(() -> repaired[0] = update("UPDATE cocktails SET average_rating = " + AVERAGE_SUBQUERY
+                + " WHERE average_rating IS NULL OR ABS(average_rating - " + AVERAGE_SUBQUERY + ") > 1e-9"));
+        if (repaired[0] > 0) {
+            System.out.println("Исправлены рейтинги коктейлей: " + repaired[0]);
+        }
+        return repaired[0];
+    }
+
+    @Override
+    public synchronized Integer getUserRating(int userId, int cocktailId) {  // Поиск по первичному ключу оценки
+        try (PreparedStatement statement = prepare(
+                "SELECT rating FROM ratings WHERE user_id = ? AND cocktail_id = ?", userId, cocktailId);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : null;
+        } catch (SQLException e) {
+            System.out.println("Ошибка при чтении оценки: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {                    // Закрывает соединение — база сбрасывает данные в файл
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println("Ошибка при закрытии базы: " + e.getMessage());
+        }
+    }
+
+    // ===== ЧТЕНИЕ =====
+
+    private List<Cocktail> queryCocktails(String where, String orderBy, Object... params) {  // Коктейли с ингредиентами и шагами
+        Map<Integer, Cocktail> result = new LinkedHashMap<>();  // Порядок задаёт ORDER BY
+        try {
+            try (PreparedStatement statement = prepare(
+                    "SELECT " + COCKTAIL_COLUMNS + " FROM cocktails c WHERE " + where + " ORDER BY " + orderBy, params);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    Cocktail c = new Cocktail(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getString(5), rs.getInt(6), rs.getString(7));
+                    c.setAverageRating(rs.getDouble(8));
+                    result.put(c.getId(), c);
+                }
+            }
+            if (result.isEmpty()) {
+                return new ArrayList<>();
+            }
+            String ids = "SELECT c.id FROM cocktails c WHERE " + where;  // Подробности — двумя запросами на весь результат, а не по одному на коктейль
+            try (PreparedStatement statement = prepare("SELECT cocktail_id, name, quantity, unit FROM ingredients "
+                    + "WHERE cocktail_id IN (" + ids + ") ORDER BY cocktail_id, ord", params);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    result.get(rs.getInt(1)).addIngredient(new Ingredient(rs.getString(2), rs.getDouble(3), rs.getString(4)));
+                }
+            }
+            try (PreparedStatement statement = prepare("SELECT cocktail_id, step_number, description, tips, duration FROM steps "
+                    + "WHERE cocktail_id IN (" + ids + ") ORDER BY cocktail_id, ord", params);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    result.get(rs.getInt(1)).addPreparationStep(
+                            new PreparationStep(rs.getInt(2), rs.getString(3), rs.getString(4), rs.getInt(5)));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при чтении коктейлей: " + e.getMessage());
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private List<CocktailSummary> querySummaries(String where, Object... params) {  // Краткие представления одним запросом
+        List<CocktailSummary> result = new ArrayList<>();
+        try (PreparedStatement statement = prepare(
+                "SELECT " + SUMMARY_COLUMNS + " FROM cocktails c WHERE " + where + " ORDER BY c.id", params);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                result.add(new CocktailSummary(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getInt(5), rs.getDouble(6), rs.getString(7)));
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при чтении коктейлей: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private List<User> queryUsers(String where, Object... params) {  // Пользователи вместе с их оценками
+        Map<Integer, User> result = new LinkedHashMap<>();
+        try {
+            try (PreparedStatement statement = prepare("SELECT u.id, u.username, u.email, u.password_hash FROM users u WHERE "
+                    + where + " ORDER BY u.id", params);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    User u = new User(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+                    result.put(u.getId(), u);
+                }
+            }
+            if (result.isEmpty()) {
+                return new ArrayList<>();
+            }
+            try (PreparedStatement statement = prepare("SELECT r.user_id, r.cocktail_id, r.rating FROM ratings r "
+                    + "WHERE r.user_id IN (SELECT u.id FROM users u WHERE " + where + ")", params);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    result.get(rs.getInt(1)).rateCocktail(rs.getInt(2), rs.getInt(3));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при чтении пользователей: " + e.getMessage());
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private List<String> queryStrings(String sql) {          // Один строковый столбец
+        List<String> values = new ArrayList<>();
+        try (PreparedStatement statement = prepare(sql);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при чтении справочника: " + e.getMessage());
+        }
+        return values;
+    }
+
+    private Map<String, Integer> queryCounts(String sql) {   // Пары «значение, число» в порядке запроса
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        try (PreparedStatement statement = prepare(sql);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при чтении справочника: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    private int queryInt(String sql, Object... params) {    // Одно число
+        try (PreparedStatement statement = prepare(sql, params);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.out.println("Ошибка при выполнении запроса: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // ===== ЗАПИСЬ =====
+
+    private interface SqlWork {                              // Действие внутри транзакции
+        void run() throws SQLException;
+    }
+
+    private void inTransaction(SqlWork work) {               // Выполняет действие целиком или не выполняет вовсе
+        try {
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();                       // Откатываем частично выполненное изменение
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("Ошибка при записи в базу: " + e.getMessage());
+        }
+        catalogVersion++;                                    // Через транзакцию проходит любая запись; лишнее увеличение после отката безвредно
+    }
+
+    private void insertCocktail(Cocktail c) throws SQLException {  // Строка коктейля и его подробности
+        update("INSERT INTO cocktails (id, name, name_key, description, alcohol_base, base_key, difficulty, difficulty_key, "
+                        + "preparation_time, image_url, average_rating) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                c.getId(), c.getName(), lower(c.getName()), c.getDescription(), c.getAlcoholBase(), lower(c.getAlcoholBase()),
+                c.getDifficulty(), lower(c.getDifficulty()), c.getPreparationTime(), c.getImageUrl(), c.getAverageRating());
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO ingredients (cocktail_id, ord, name, name_key, quantity, unit) VALUES (?, ?, ?, ?, ?, ?)")) {
+            int ord = 0;
+            for (Ingredient ing : c.getIngredients()) {      // Все ингредиенты — одной пачкой
+                bind(statement, c.getId(), ord++, ing.getName(), ingredientKey(ing.getName()), ing.getQuantity(), ing.getUnit());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO steps (cocktail_id, ord, step_number, description, tips, duration) VALUES (?, ?, ?, ?, ?, ?)")) {
+            int ord = 0;
+            for (PreparationStep step : c.getPreparationSteps()) {
+                bind(statement, c.getId(), ord++, step.getStepNumber(), step.getDescription(), step.getTips(), step.getDuration());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private int deleteCocktailRows(int id) throws SQLException {  // Удаляет коктейль с подробностями; возвращает число удалённых коктейлей
+        update("DELETE FROM ingredients WHERE cocktail_id = ?", id);
+        update("DELETE FROM steps WHERE cocktail_id = ?", id);
+        return update("DELETE FROM cocktails WHERE id = ?", id);
+    }
+
+    private void insertUser(User u) throws SQLException {
+        update("INSERT INTO users (id, username, email, password_hash) VALUES (?, ?, ?, ?)",
+                u.getId(), u.getUsername(), u.getEmail(), u.getPasswordHash());
+    }
+
+    private void upsertRating(int userId, int cocktailId, int rating) throws SQLException {  // Переносимая замена MERGE/UPSERT
+        update("DELETE FROM ratings WHERE user_id = ? AND cocktail_id = ?", userId, cocktailId);
+        update("INSERT INTO ratings (user_id, cocktail_id, rating) VALUES (?, ?, ?)", userId, cocktailId, rating);
+    }
+
+    private void updateAverageRating(int cocktailId) throws SQLException {
+        update("UPDATE cocktails SET average_rating = " + AVERAGE_SUBQUERY + " WHERE id = ?", cocktailId);
+    }
+
+    private int update(String sql, Object... params) throws SQLException {
+        try (PreparedStatement statement = prepare(sql, params)) {
+            return statement.executeUpdate();
+        }
+    }
+
+    private PreparedStatement prepare(String sql, Object... params) throws SQLException {  // Запрос с подставленными параметрами
+        PreparedStatement statement = connection.prepareStatement(sql);
+        bind(statement, params);
+        return statement;
+    }
+
+    private static void bind(PreparedStatement statement, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+
+    private static String likePattern(String fragment) {    // Подстрока для LIKE: экранируем служебные символы % и _
+        String escaped = fragment.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String lower(String value) {             // Ключ для сравнения без учёта регистра
+        return value == null ? null : value.toLowerCase();
+    }
+
+    private static String ingredientKey(String name) {       // Ключ ингредиента — как в индексе в памяти (без лишних пробелов)
+        return name == null ? null : IngredientIndex.normalize(name);
+    }
+}
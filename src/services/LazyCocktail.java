@@ -0,0 +1,122 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.Ingredient;                                     // Импорт модели ингредиента
+import models.PreparationStep;                                // Импорт модели шага приготовления
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+import java.io.UncheckedIOException;                          // Импорт непроверяемой обёртки над IOException
+import java.util.List;                                        // Импорт интерфейса List
+
+/**
+ * Коктейль из MappedCatalog: краткие поля (название, сложность, время, основа, рейтинг) уже в памяти,
+ * а описание, ингредиенты и шаги декодируются из отображённого файла только при первом обращении к ним.
+ */
+class LazyCocktail extends Cocktail {                        // Класс доступен только внутри слоя хранения
+
+    private MappedCatalog catalog;                           // Поле: каталог, из которого читаются подробности (меняется при перезаписи файла)
+    private long detailsOffset;                              // Поле: смещение подробной части записи в файле
+    private int detailsLength;                               // Поле: длина подробной части записи
+    private volatile boolean detailsLoaded;                  // Поле: подробности уже декодированы
+
+    LazyCocktail(MappedCatalog catalog, long detailsOffset, int detailsLength, int id, String name,
+                 String alcoholBase, String difficulty, int preparationTime, String imageUrl) {
+        super(id, name, null, alcoholBase, difficulty, preparationTime, imageUrl);  // Описание пока не загружено
+        this.catalog = catalog;
+        this.detailsOffset = detailsOffset;
+        this.detailsLength = detailsLength;
+    }
+
+    boolean isDetailsLoaded() {                              // true — если подробности уже декодированы (или изменены)
+        return detailsLoaded;
+    }
+
+    synchronized byte[] rawDetails() throws IOException {    // Сырые байты подробной части для копирования без разбора; null — уже декодированы
+        return detailsLoaded ? null : catalog.readBytes(detailsOffset, detailsLength);
+    }
+
+    synchronized void relocate(MappedCatalog catalog, long detailsOffset, int detailsLength) {  // Те же подробности теперь лежат в другом каталоге
+        if (detailsLoaded) {                                 // Декодированным коктейлям каталог больше не нужен
+            return;
+        }
+        this.catalog = catalog;
+        this.detailsOffset = detailsOffset;
+        this.detailsLength = detailsLength;
+    }
+
+    private void ensureDetails() {                           // Декодирует подробности при первом обращении
+        if (detailsLoaded) {                                 // Быстрая проверка без блокировки
+            return;
+        }
+        synchronized (this) {
+            if (detailsLoaded) {                             // Другой поток мог успеть раньше
+                return;
+            }
+            try {
+                catalog.decodeDetails(detailsOffset, detailsLength, this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка чтения каталога коктейлей", e);
+            }
+            detailsLoaded = true;                            // Флаг ставим только после полного разбора
+            catalog = null;                                  // Каталог больше не нужен — его отображение можно освободить
+        }
+    }
+
+    void setLoadedDescription(String description) {         // Вызывается каталогом при декодировании
+        super.setDescription(description);
+    }
+
+    void setLoadedDetails(List<Ingredient> ingredients, List<PreparationStep> steps) {  // Вызывается каталогом при декодировании
+        ingredients.forEach(super::addIngredient);
+        steps.forEach(super::addPreparationStep);
+    }
+
+    // ===== ПОДРОБНОСТИ ДОСТУПНЫ ТОЛЬКО ПОСЛЕ ДЕКОДИРОВАНИЯ =====
+
+    @Override
+    public String getDescription() {
+        ensureDetails();
+        return super.getDescription();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        ensureDetails();                                     // Иначе декодирование затрёт новое значение
+        super.setDescription(description);
+    }
+
+    @Override
+    public List<Ingredient> getIngredients() {
+        ensureDetails();
+        return super.getIngredients();
+    }
+
+    @Override
+    public void addIngredient(Ingredient ingredient) {
+        ensureDetails();
+        super.addIngredient(ingredient);
+    }
+
+    @Override
+    public void removeIngredient(Ingredient ingredient) {
+        ensureDetails();
+        super.removeIngredient(ingredient);
+    }
+
+    @Override
+    public List<PreparationStep> getPreparationSteps() {
+        ensureDetails();
+        return super.getPreparationSteps();
+    }
+
+    @Override
+    public void addPreparationStep(PreparationStep step) {
+        ensureDetails();
+        super.addPreparationStep(step);
+    }
+
+    @Override
+    public void removePreparationStep(PreparationStep step) {
+        ensureDetails();
+        super.removePreparationStep(step);
+    }
+}
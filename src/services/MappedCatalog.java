@@ -0,0 +1,284 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.Ingredient;                                     // Импорт модели ингредиента
+import models.PreparationStep;                                // Импорт модели шага приготовления
+import java.io.*;                                              // Импорт классов ввода-вывода
+import java.nio.ByteBuffer;                                   // Импорт байтового буфера
+import java.nio.MappedByteBuffer;                             // Импорт буфера, отображённого на файл
+import java.nio.channels.FileChannel;                         // Импорт файлового канала (FileChannel.map)
+import java.nio.charset.StandardCharsets;                     // Импорт кодировки UTF-8
+import java.util.ArrayList;                                   // Импорт реализации списка
+import java.util.Arrays;                                      // Импорт утилит для сравнения массивов
+import java.util.Collection;                                  // Импорт интерфейса коллекции
+import java.util.List;                                        // Импорт интерфейса List
+import java.util.function.Consumer;                           // Импорт функционального интерфейса-получателя
+
+/**
+ * Каталог коктейлей только для чтения, отображённый в память (FileChannel.map).
+ *
+ * Формат файла (.cat):
+ *   заголовок:  MAGIC (4 байта) | версия (int) | количество записей (int) | смещение индекса (long)
+ *   записи:     [краткая часть | подробная часть] для каждого коктейля
+ *   индекс:     на каждую запись ровно INDEX_ENTRY_SIZE байт: id (int) | смещение (long) | длина краткой части (int) | длина подробной части (int)
+ *
+ * Краткая часть (название, сложность, время, основа, рейтинг, картинка) нужна списку и читается при открытии.
+ * Подробная часть (описание, ингредиенты, шаги) декодируется только при первом обращении — см. LazyCocktail.
+ * Записи не пересекают границы сегментов SEGMENT_SIZE, поэтому каталог может быть больше 2 ГБ.
+ *
+ * Все сегменты отображаются при открытии, и канал сразу закрывается: отображение от канала не зависит, поэтому
+ * открытый каталог не держит дескриптор файла. Память отображения освобождается, когда на каталог не остаётся
+ * ссылок, — для этого write() переводит ещё не декодированные коктейли на только что записанный файл.
+ */
+public class MappedCatalog {                                 // Публичный класс отображённого каталога
+
+    static final byte[] MAGIC = {'C', 'K', 'M', 'C'};        // Константа: сигнатура файла каталога
+    private static final int VERSION = 1;                    // Константа: версия формата
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;    // Константа: размер заголовка в байтах
+    private static final int INDEX_ENTRY_SIZE = 4 + 8 + 4 + 4;  // Константа: фиксированная ширина записи индекса
+    private static final long SEGMENT_SIZE = 1L << 30;       // Константа: размер одного отображённого сегмента (1 ГБ)
+
+    private final MappedByteBuffer[] segments;               // Поле: отображённые сегменты файла
+
+    private MappedCatalog(FileChannel channel) throws IOException {  // Отображает весь файл; канал после этого не нужен
+        long fileSize = channel.size();
+        this.segments = new MappedByteBuffer[(int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, fileSize - start));
+        }
+    }
+
+    /**
+     * Открывает каталог и передаёт получателю коктейли, у которых декодирована только краткая часть
+     */
+    public static void open(File file, Consumer<Cocktail> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath())) {  // Канал нужен только на время открытия
+            read(file, channel, new MappedCatalog(channel), sink);
+        }
+    }
+
+    private static void read(File file, FileChannel channel, MappedCatalog catalog, Consumer<Cocktail> sink)
+            throws IOException {                             // Читает заголовок и индекс, отдаёт краткие части
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);  // Читаем заголовок
+        channel.read(header, 0);
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+            throw new IOException("Файл не является каталогом коктейлей: " + file);
+        }
+        int count = header.getInt();                         // Количество записей
+        long indexOffset = header.getLong();                 // Где начинается индекс
+
+        ByteBuffer index = ByteBuffer.allocate(64 * 1024 / INDEX_ENTRY_SIZE * INDEX_ENTRY_SIZE);  // Индекс читаем порциями целых записей
+        long position = indexOffset;
+        for (int i = 0; i < count; ) {
+            index.clear();
+            index.limit((int) Math.min(index.capacity(), (long) (count - i) * INDEX_ENTRY_SIZE));
+            while (index.hasRemaining()) {                   // Дочитываем порцию до конца
+                if (channel.read(index, position + index.position()) < 0) {
+                    throw new EOFException("Индекс каталога обрезан: " + file);
+                }
+            }
+            position += index.limit();
+            index.flip();
+            while (index.hasRemaining()) {                   // Разбираем записи индекса
+                int id = index.getInt();
+                long offset = index.getLong();
+                int summaryLength = index.getInt();
+                int detailsLength = index.getInt();
+                sink.accept(catalog.decodeSummary(id, offset, summaryLength, detailsLength));
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Записывает каталог. Подробная часть ещё не декодированных LazyCocktail копируется байтами без разбора,
+     * после чего эти коктейли читают подробности уже из нового файла — прежний каталог можно отпустить.
+     */
+    public static void write(File file, Collection<Cocktail> cocktails) throws IOException {
+        List<long[]> entries = new ArrayList<>(cocktails.size());  // Записи индекса: id, смещение, длины
+        List<LazyCocktail> copied = new ArrayList<>();       // Коктейли, чьи подробности скопированы байтами
+        List<long[]> copiedEntries = new ArrayList<>();      // Их записи индекса
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);                                // Перезаписываем файл с нуля
+            try (CountingOutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(raf.getFD()), 1 << 16))) {
+                out.write(new byte[HEADER_SIZE]);            // Место под заголовок — заполним в конце
+                for (Cocktail c : cocktails) {
+                    byte[] summary = encodeSummary(c);       // Краткая часть
+                    byte[] details = c instanceof LazyCocktail ? ((LazyCocktail) c).rawDetails() : null;  // Нетронутые данные копируем как есть
+                    boolean copiedRaw = details != null;     // null — подробности уже декодированы
+                    if (!copiedRaw) {
+                        details = encodeDetails(c);
+                    }
+                    long recordLength = summary.length + details.length;
+                    long segmentLeft = SEGMENT_SIZE - out.count % SEGMENT_SIZE;
+                    if (recordLength > segmentLeft) {        // Запись не должна пересекать границу сегмента
+                        byte[] padding = new byte[64 * 1024];  // Добиваем сегмент нулями порциями
+                        for (long left = segmentLeft; left > 0; left -= padding.length) {
+                            out.write(padding, 0, (int) Math.min(padding.length, left));
+                        }
+                    }
+                    long[] entry = {c.getId(), out.count, summary.length, details.length};
+                    entries.add(entry);
+                    if (copiedRaw) {
+                        copied.add((LazyCocktail) c);
+                        copiedEntries.add(entry);
+                    }
+                    out.write(summary);
+                    out.write(details);
+                }
+                long indexOffset = out.count;                // Индекс пишем после всех записей
+                DataOutputStream data = new DataOutputStream(out);
+                for (long[] entry : entries) {
+                    data.writeInt((int) entry[0]);
+                    data.writeLong(entry[1]);
+                    data.writeInt((int) entry[2]);
+                    data.writeInt((int) entry[3]);
+                }
+                data.flush();
+
+                raf.seek(0);                                 // Возвращаемся и заполняем заголовок
+                raf.write(MAGIC);
+                raf.writeInt(VERSION);
+                raf.writeInt(entries.size());
+                raf.writeLong(indexOffset);
+            }
+        }
+        if (copied.isEmpty()) {
+            return;
+        }
+        MappedCatalog written;
+        try (FileChannel channel = FileChannel.open(file.toPath())) {  // После переименования отображение по-прежнему указывает на этот файл
+            written = new MappedCatalog(channel);
+        }
+        for (int i = 0; i < copied.size(); i++) {
+            long[] entry = copiedEntries.get(i);
+            copied.get(i).relocate(written, entry[1] + entry[2], (int) entry[3]);
+        }
+    }
+
+    // ===== ДЕКОДИРОВАНИЕ =====
+
+    private Cocktail decodeSummary(int id, long offset, int summaryLength, int detailsLength) throws IOException {
+        ByteBuffer buffer = slice(offset, summaryLength);    // Только краткая часть записи
+        String name = readString(buffer);
+        String difficulty = readString(buffer);
+        int preparationTime = buffer.getInt();
+        String alcoholBase = readString(buffer);
+        double averageRating = buffer.getDouble();
+        String imageUrl = readString(buffer);
+        LazyCocktail c = new LazyCocktail(this, offset + summaryLength, detailsLength,
+                id, name, alcoholBase, difficulty, preparationTime, imageUrl);
+        c.setAverageRating(averageRating);
+        return c;
+    }
+
+    /**
+     * Декодирует подробную часть записи прямо в коктейль (вызывается из LazyCocktail при первом обращении)
+     */
+    void decodeDetails(long offset, int length, LazyCocktail target) throws IOException {
+        ByteBuffer buffer = slice(offset, length);
+        target.setLoadedDescription(readString(buffer));
+        List<Ingredient> ingredients = new ArrayList<>();
+        int ingredientCount = buffer.getInt();
+        for (int i = 0; i < ingredientCount; i++) {
+            ingredients.add(new Ingredient(readString(buffer), buffer.getDouble(), readString(buffer)));
+        }
+        List<PreparationStep> steps = new ArrayList<>();
+        int stepCount = buffer.getInt();
+        for (int i = 0; i < stepCount; i++) {
+            steps.add(new PreparationStep(buffer.getInt(), readString(buffer), readString(buffer), buffer.getInt()));
+        }
+        target.setLoadedDetails(ingredients, steps);
+    }
+
+    byte[] readBytes(long offset, int length) throws IOException {  // Копия сырых байтов записи
+        byte[] bytes = new byte[length];
+        slice(offset, length).get(bytes);
+        return bytes;
+    }
+
+    private ByteBuffer slice(long offset, int length) {      // Буфер, ограниченный одной записью
+        MappedByteBuffer segment = segments[(int) (offset / SEGMENT_SIZE)];  // Запись целиком лежит в одном сегменте
+        return segment.slice((int) (offset % SEGMENT_SIZE), length);  // Независимая позиция для каждого чтения
+    }
+
+    private static String readString(ByteBuffer buffer) {    // Строка: длина (int, -1 для null) и байты UTF-8
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ===== КОДИРОВАНИЕ =====
+
+    private static byte[] encodeSummary(Cocktail c) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, c.getName());
+        writeString(out, c.getDifficulty());
+        out.writeInt(c.getPreparationTime());
+        writeString(out, c.getAlcoholBase());
+        out.writeDouble(c.getAverageRating());
+        writeString(out, c.getImageUrl());
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeDetails(Cocktail c) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, c.getDescription());
+        out.writeInt(c.getIngredients().size());
+        for (Ingredient ing : c.getIngredients()) {
+            writeString(out, ing.getName());
+            out.writeDouble(ing.getQuantity());
+            writeString(out, ing.getUnit());
+        }
+        out.writeInt(c.getPreparationSteps().size());
+        for (PreparationStep step : c.getPreparationSteps()) {
+            out.writeInt(step.getStepNumber());
+            writeString(out, step.getDescription());
+            writeString(out, step.getTips());
+            out.writeInt(step.getDuration());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);                                // null кодируется отрицательной длиной
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {  // Поток, считающий записанные байты
+        long count;                                          // Текущая позиция в файле
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
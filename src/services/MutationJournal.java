@@ -0,0 +1,131 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import com.google.gson.*;                                     // Импорт классов Gson (JsonObject, JsonParser, Gson)
+import java.io.*;                                              // Импорт классов ввода-вывода (File, Writer, BufferedReader и т.д.)
+import java.nio.charset.StandardCharsets;                     // Импорт кодировки UTF-8
+import java.util.List;                                        // Импорт интерфейса List для пачки записей
+import java.util.function.Consumer;                           // Импорт функционального интерфейса для обработки записей
+
+/**
+ * Журнал изменений (append-only): каждая мутация данных дописывается в конец файла
+ * одной строкой компактного JSON. При старте журнал проигрывается поверх последнего снимка
+ * (cocktails.json / users.json), поэтому запись одной оценки стоит O(размер записи), а не O(весь файл).
+ */
+public class MutationJournal {                               // Публичный класс журнала изменений
+
+    private final File file;                                 // Поле: файл журнала на диске
+    private final Gson gson;                                 // Поле: компактный Gson (без pretty printing — одна запись = одна строка)
+    private Writer writer;                                   // Поле: открытый на дозапись поток (создаётся лениво)
+    private int recordCount;                                 // Поле: количество записей в журнале с момента последнего снимка
+
+    public MutationJournal(String filePath) {                // Конструктор — принимает путь к файлу журнала
+        this.file = new File(filePath);                      // Создаём объект файла
+        this.gson = new Gson();                              // Компактный Gson без отступов и переносов
+        this.recordCount = 0;                                // Пока записей нет (счётчик обновится при replay)
+    }
+
+    /**
+     * Дописывает пачку записей в конец журнала с одним сбросом буфера на диск
+     * @param records записи в порядке применения
+     */
+    public synchronized void appendAll(List<JsonObject> records) throws IOException {
+        if (writer == null) {                                // Если поток ещё не открыт
+            file.getParentFile().mkdirs();                   // Создаём папки, если их нет
+            boolean tornTail = endsWithTornLine();           // Проверяем до открытия — поток дозаписи прочитать нельзя
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(file, true), StandardCharsets.UTF_8));  // Открываем файл в режиме дозаписи
+            if (tornTail) {                                  // Оборванная строка должна остаться отдельной, иначе новая запись
+                writer.write('\n');                          // склеится с ней и при проигрывании пропадёт вместе с обрывком
+            }
+        }
+        try {
+            for (JsonObject record : records) {              // Проходим по всем записям пачки
+                writer.write(gson.toJson(record));           // Пишем запись одной строкой
+                writer.write('\n');                          // Разделитель записей — перевод строки
+            }
+            writer.flush();                                  // Один сброс буфера на всю пачку
+        } catch (IOException e) {                            // Часть пачки могла попасть на диск оборванной строкой —
+            try {                                            // поток закрываем, при следующей попытке он откроется заново
+                writer.close();                              // и начнёт с новой строки
+            } catch (IOException ignored) {
+                // Поток уже в ошибке — закрываем как получится
+            }
+            writer = null;
+            throw e;
+        }
+        recordCount += records.size();                       // Увеличиваем счётчик записей
+    }
+
+    private boolean endsWithTornLine() throws IOException {  // Файл не пуст и не заканчивается переводом строки
+        if (file.length() == 0) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() != '\n';
+        }
+    }
+
+    /**
+     * Проигрывает все записи журнала по порядку
+     * Последняя строка, оборванная при аварийном завершении, игнорируется; запись, которую обработчик
+     * не смог применить (например, без нужного поля), пропускается — остальные всё равно проигрываются
+     * @param handler обработчик, который применяет запись к данным в памяти
+     */
+    public synchronized void replay(Consumer<JsonObject> handler) throws IOException {
+        recordCount = 0;                                     // Пересчитываем записи заново
+        if (!file.exists()) {                                // Если журнала нет — проигрывать нечего
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {  // Читаем журнал в UTF-8
+            String line;                                     // Текущая строка журнала
+            while ((line = reader.readLine()) != null) {     // Читаем построчно
+                if (line.isEmpty()) {                        // Пустые строки пропускаем
+                    continue;
+                }
+                JsonObject record;                           // Разобранная запись
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();  // Парсим одну запись
+                } catch (JsonParseException | IllegalStateException e) {  // Оборванная или повреждённая запись
+                    System.out.println("Пропущена повреждённая запись журнала: " + e.getMessage());
+                    continue;                                // Продолжаем со следующей строки
+                }
+                try {
+                    handler.accept(record);                  // Применяем запись к данным
+                } catch (RuntimeException e) {               // Корректный JSON, но запись неполная или неверного вида
+                    System.out.println("Пропущена запись журнала, которую не удалось применить: " + line);
+                    continue;                                // Одна плохая запись не должна оборвать проигрывание остальных
+                }
+                recordCount++;                               // Считаем применённую запись
+            }
+        }
+    }
+
+    /**
+     * Очищает журнал — вызывается после того, как все изменения попали в новый снимок
+     */
+    public synchronized void truncate() throws IOException {
+        close();                                             // Закрываем текущий поток дозаписи
+        file.getParentFile().mkdirs();                       // Убеждаемся, что папка существует
+        try (FileOutputStream out = new FileOutputStream(file, false)) {  // Открытие без append обрезает файл до нуля
+            out.getFD().sync();                              // Гарантируем, что пустой журнал записан на диск
+        }
+        recordCount = 0;                                     // Записей больше нет
+    }
+
+    /**
+     * Закрывает поток дозаписи (при следующем append он откроется заново)
+     */
+    public synchronized void close() throws IOException {
+        if (writer != null) {                                // Если поток открыт
+            writer.close();                                  // Закрываем его
+            writer = null;                                   // Сбрасываем ссылку
+        }
+    }
+
+    // Возвращает количество записей в журнале с момента последнего снимка
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+}
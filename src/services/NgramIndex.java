@@ -0,0 +1,134 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import utils.IntPostingList;                                  // Импорт отсортированного списка вхождений
+import java.util.*;                                          // Импорт коллекций
+import java.util.function.IntPredicate;                      // Импорт проверки по ID
+
+/**
+ * Триграммный инвертированный индекс для поиска подстроки в названиях.
+ *
+ * Название приводится к нижнему регистру и разбивается на все тройки подряд идущих символов;
+ * для каждой тройки хранится список ID, в названиях которых она встречается. Любая подстрока длиной от трёх
+ * символов содержит свои триграммы, поэтому пересечение их списков — надмножество ответа. Кандидатов затем
+ * проверяет вызывающий код (contains), так что ложных срабатываний в результате нет.
+ */
+public class NgramIndex {                                    // Публичный класс n-граммного индекса
+
+    public static final int GRAM = 3;                        // Константа: длина n-граммы; более короткие запросы индекс не обслуживает
+
+    private final Map<Long, IntPostingList> postings;        // Поле: триграмма (три символа в одном long) → ID по возрастанию
+
+    public NgramIndex() {
+        this.postings = new HashMap<>();
+    }
+
+    /**
+     * Приведение текста, общее для индекса и для проверки кандидатов
+     */
+    public static String fold(String text) {
+        return text.toLowerCase();
+    }
+
+    public void add(int id, String text) {                   // Добавляет текст с указанным ID
+        if (text == null) {
+            return;
+        }
+        for (long gram : grams(fold(text))) {
+            postings.computeIfAbsent(gram, g -> new IntPostingList()).add(id);
+        }
+    }
+
+    public void remove(int id, String text) {                // Убирает текст (тот же, что передавался в add)
+        if (text == null) {
+            return;
+        }
+        for (long gram : grams(fold(text))) {
+            IntPostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.isEmpty()) {
+                postings.remove(gram);                       // Пустые списки не храним
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+    }
+
+    public int gramCount() {                                 // Различных триграмм в индексе
+        return postings.size();
+    }
+
+    /**
+     * ID, в текстах которых могут встречаться все триграммы запроса (по возрастанию).
+     * Возвращает null, если запрос короче триграммы — тогда индекс не помогает и нужен перебор.
+     */
+    public int[] candidates(String query) {
+        String folded = fold(query);
+        if (folded.length() < GRAM) {
+            return null;
+        }
+        List<IntPostingList> lists = new ArrayList<>();
+        for (long gram : grams(folded)) {
+            IntPostingList list = postings.get(gram);
+            if (list == null) {                              // Такой триграммы нет ни в одном тексте
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));  // Начинаем с самого редкого — дальше кандидатов только меньше
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retainAll(result);
+        }
+        return result;
+    }
+
+    /**
+     * Верхняя оценка числа совпадений без пересечения: длина самого короткого списка триграмм запроса.
+     * -1 — запрос короче триграммы
+     */
+    public int estimate(String query) {
+        String folded = fold(query);
+        if (folded.length() < GRAM) {
+            return -1;
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (long gram : grams(folded)) {
+            IntPostingList list = postings.get(gram);
+            estimate = Math.min(estimate, list == null ? 0 : list.size());
+        }
+        return estimate;
+    }
+
+    /**
+     * Проверка «есть ли у текста с данным ID все триграммы запроса»; списки триграмм находятся один раз.
+     * Для запроса короче триграммы пропускает всё.
+     */
+    public IntPredicate prober(String query) {
+        List<IntPostingList> lists = new ArrayList<>();
+        for (long gram : grams(fold(query))) {
+            IntPostingList list = postings.get(gram);
+            if (list == null) {                              // Триграммы нет ни в одном тексте
+                return id -> false;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));  // Самый короткий список отсекает чаще
+        return id -> {
+            for (IntPostingList list : lists) {
+                if (!list.contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Set<Long> grams(String folded) {          // Различные триграммы строки
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            grams.add(((long) folded.charAt(i) << 32) | ((long) folded.charAt(i + 1) << 16) | folded.charAt(i + 2));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,149 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.Page;                                          // Импорт страницы результата
+import java.nio.charset.StandardCharsets;                    // Импорт кодировки для курсора
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Непрозрачные курсоры постраничной выдачи.
+ *
+ * Курсор бывает двух видов: позиция в результате («o:120») — для списков, которые и так вычисляются целиком,
+ * и ключ последнего выданного коктейля («k:RATING:42:4.5») — для отсортированного каталога: хранилище находит
+ * место продолжения по ключу, а не отсчитывает позицию от начала, и продолжение не ломается, даже если
+ * этот коктейль тем временем удалили или изменили.
+ * Снаружи курсор — строка Base64, которую нужно передать обратно без изменений.
+ */
+public final class PageCursor {                              // Утилитный класс — только статические методы
+
+    private PageCursor() {
+    }
+
+    // ===== ПОЗИЦИЯ В РЕЗУЛЬТАТЕ =====
+
+    /**
+     * Страница уже вычисленного списка: курсор null — с начала
+     */
+    public static <T> Page<T> slice(List<T> all, String cursor, int limit) {
+        checkLimit(limit);
+        int offset = offset(cursor);
+        int from = Math.min(offset, all.size());
+        int to = (int) Math.min((long) from + limit, all.size());
+        return new Page<>(new ArrayList<>(all.subList(from, to)), to < all.size() ? offsetCursor(to) : null);
+    }
+
+    public static int offset(String cursor) {                // Позиция из курсора; null — начало
+        if (cursor == null) {
+            return 0;
+        }
+        String[] parts = decode(cursor, 2);
+        if (parts.length != 2 || !"o".equals(parts[0])) {
+            throw invalid();
+        }
+        try {
+            int offset = Integer.parseInt(parts[1]);
+            if (offset < 0) {
+                throw invalid();
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * Страница всего каталога в порядке хранения: хранилище копирует только её (и один коктейль сверх — признак продолжения)
+     */
+    public static Page<Cocktail> allCocktails(DataRepository repository, String cursor, int limit) {
+        checkLimit(limit);
+        int offset = offset(cursor);
+        List<Cocktail> fetched = repository.getCocktailsPage(offset, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        if (fetched.size() <= limit) {
+            return new Page<>(fetched, null);
+        }
+        return new Page<>(new ArrayList<>(fetched.subList(0, limit)), offsetCursor(offset + limit));
+    }
+
+    public static String offsetCursor(int offset) {
+        return encode("o:" + offset);
+    }
+
+    // ===== ПРОДОЛЖЕНИЕ ПОСЛЕ КОКТЕЙЛЯ =====
+
+    /**
+     * Ключ, после которого продолжается выдача в порядке order: коктейль, в котором заполнены только ID
+     * и поле сортировки; null — курсор null (с начала)
+     */
+    public static Cocktail after(String cursor, CocktailOrder order) {
+        if (cursor == null) {
+            return null;
+        }
+        String[] parts = decode(cursor, 4);
+        if (parts.length < 3 || !"k".equals(parts[0]) || !order.name().equals(parts[1])) {
+            throw invalid();                                 // Курсор от другого порядка или другого списка
+        }
+        String value = parts.length == 4 ? parts[3] : null;  // Без значения — поле было пустым (null)
+        try {
+            Cocktail key = new Cocktail(Integer.parseInt(parts[2]), null, null, null, null, 0, null);
+            switch (order) {
+                case DIFFICULTY:
+                    key.setDifficulty(value);
+                    break;
+                case PREPARATION_TIME:
+                    key.setPreparationTime(Integer.parseInt(value));
+                    break;
+                default:
+                    key.setAverageRating(Double.parseDouble(value));
+            }
+            return key;
+        } catch (NumberFormatException | NullPointerException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * Страница из limit + 1 полученных коктейлей: лишний только показывает, что дальше что-то есть
+     */
+    public static Page<Cocktail> keyset(List<Cocktail> fetched, int limit, CocktailOrder order) {
+        checkLimit(limit);
+        if (fetched.size() <= limit) {
+            return new Page<>(fetched, null);
+        }
+        List<Cocktail> items = new ArrayList<>(fetched.subList(0, limit));
+        Cocktail last = items.get(limit - 1);
+        String value;
+        switch (order) {
+            case DIFFICULTY:
+                value = last.getDifficulty();
+                break;
+            case PREPARATION_TIME:
+                value = String.valueOf(last.getPreparationTime());
+                break;
+            default:
+                value = String.valueOf(last.getAverageRating());  // Double.toString читается обратно без потерь
+        }
+        return new Page<>(items, encode("k:" + order.name() + ":" + last.getId() + (value != null ? ":" + value : "")));
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, int parts) {  // Последняя часть может содержать ':'
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", parts);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Неверный курсор страницы");
+    }
+}
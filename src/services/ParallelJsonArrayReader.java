@@ -0,0 +1,211 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import com.google.gson.Gson;                                  // Импорт Gson (настройки читателя JSON)
+import com.google.gson.TypeAdapter;                           // Импорт потокового адаптера Gson
+import com.google.gson.stream.JsonReader;                     // Импорт потокового читателя JSON
+import java.io.*;                                              // Импорт классов ввода-вывода
+import java.nio.ByteBuffer;                                   // Импорт байтового буфера
+import java.nio.MappedByteBuffer;                             // Импорт буфера, отображённого на файл
+import java.nio.channels.FileChannel;                         // Импорт файлового канала
+import java.nio.charset.StandardCharsets;                     // Импорт кодировки UTF-8
+import java.util.ArrayList;                                   // Импорт реализации списка
+import java.util.Arrays;                                      // Импорт утилит для массивов
+import java.util.Comparator;                                  // Импорт компаратора
+import java.util.List;                                        // Импорт интерфейса List
+import java.util.concurrent.ForkJoinPool;                     // Импорт пула fork-join
+import java.util.concurrent.RecursiveTask;                    // Импорт рекурсивной задачи fork-join
+
+/**
+ * Параллельный разбор большого JSON-массива объектов.
+ *
+ * Файл отображается в память, затем один быстрый проход по байтам находит границы объектов верхнего уровня
+ * (учитываются строки и экранирование; все служебные символы JSON — ASCII, поэтому UTF-8 разбирать не нужно).
+ * Объекты делятся на куски, куски разбираются задачами fork-join, результаты склеиваются в порядке ключа.
+ * @param <T> тип модели
+ */
+public class ParallelJsonArrayReader<T> {                    // Публичный класс параллельного читателя
+
+    private static final int CHUNKS_PER_THREAD = 4;          // Константа: кусков на поток — чтобы потоки не простаивали на неравных кусках
+
+    private final Gson gson;                                 // Поле: Gson с настройками читателя
+    private final TypeAdapter<T> adapter;                    // Поле: адаптер одного объекта (без состояния — безопасен для потоков)
+
+    public ParallelJsonArrayReader(Gson gson, TypeAdapter<T> adapter) {
+        this.gson = gson;
+        this.adapter = adapter;
+    }
+
+    /**
+     * Можно ли читать файл параллельно (одно отображение ограничено 2 ГБ)
+     */
+    public static boolean supports(File file) {
+        return file.length() < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Читает JSON-массив параллельно
+     * @param pool пул fork-join (обычно ForkJoinPool.commonPool())
+     * @param order порядок результата (например, по ID)
+     */
+    public List<T> read(File file, ForkJoinPool pool, Comparator<T> order) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long[] bounds = findObjects(buffer);             // Пары (начало, конец) объектов верхнего уровня
+            int objectCount = bounds.length / 2;
+            if (objectCount == 0) {
+                return new ArrayList<>();
+            }
+            int chunkCount = Math.min(objectCount, Math.max(1, pool.getParallelism() * CHUNKS_PER_THREAD));
+            int[] chunkStarts = new int[chunkCount + 1];     // Номер первого объекта каждого куска
+            for (int i = 0; i <= chunkCount; i++) {
+                chunkStarts[i] = (int) ((long) objectCount * i / chunkCount);
+            }
+            List<T> result;
+            try {
+                result = pool.invoke(new ParseTask(buffer, bounds, chunkStarts, 0, chunkCount));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();                          // Ошибка разбора одного из кусков
+            }
+            if (!isSorted(result, order)) {                  // Обычно файл уже упорядочен по ID — тогда сортировка не нужна
+                result.sort(order);
+            }
+            return result;
+        }
+    }
+
+    // Находит начало и конец каждого объекта верхнего уровня: [начало0, конец0, начало1, конец1, ...]
+    private static long[] findObjects(ByteBuffer buffer) throws IOException {
+        long[] bounds = new long[1024];
+        int count = 0;
+        int depth = 0;                                       // Глубина вложенности скобок
+        boolean inString = false;                            // Внутри строкового литерала
+        boolean escaped = false;                             // Предыдущий символ — обратная косая черта
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    if (depth == 1 && b == '{') {            // Начало объекта — элемента массива
+                        if (count == bounds.length) {
+                            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                        }
+                        bounds[count++] = i;
+                    }
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (depth == 1 && b == '}') {            // Конец объекта
+                        bounds[count++] = i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (depth != 0 || inString) {
+            throw new EOFException("JSON-массив обрезан или повреждён");
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private boolean isSorted(List<T> items, Comparator<T> order) {
+        for (int i = 1; i < items.size(); i++) {
+            if (order.compare(items.get(i - 1), items.get(i)) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<T> parseChunk(ByteBuffer buffer, long[] bounds, int firstObject, int endObject) throws IOException {
+        int from = (int) bounds[firstObject * 2];            // Начало первого объекта куска
+        int to = (int) bounds[(endObject - 1) * 2 + 1];      // Конец последнего
+        ByteBuffer slice = buffer.slice(from, to - from);    // Собственная позиция у каждой задачи
+        InputStream array = new SequenceInputStream(new SequenceInputStream(  // Кусок оборачиваем в [ ... ] — получаем обычный массив
+                new ByteArrayInputStream(new byte[]{'['}), new ByteBufferInputStream(slice)),
+                new ByteArrayInputStream(new byte[]{']'}));
+        List<T> items = new ArrayList<>(endObject - firstObject);
+        try (JsonReader reader = gson.newJsonReader(new BufferedReader(new InputStreamReader(array, StandardCharsets.UTF_8)))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                items.add(adapter.read(reader));
+            }
+            reader.endArray();
+        }
+        return items;
+    }
+
+    private class ParseTask extends RecursiveTask<List<T>> {  // Задача: разобрать куски [lo, hi)
+        private static final long serialVersionUID = 1L;     // RecursiveTask сериализуем — без версии javac предупреждает [serial]
+        private final ByteBuffer buffer;
+        private final long[] bounds;
+        private final int[] chunkStarts;
+        private final int lo;
+        private final int hi;
+
+        ParseTask(ByteBuffer buffer, long[] bounds, int[] chunkStarts, int lo, int hi) {
+            this.buffer = buffer;
+            this.bounds = bounds;
+            this.chunkStarts = chunkStarts;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (hi - lo == 1) {                              // Один кусок — разбираем сами
+                try {
+                    return parseChunk(buffer, bounds, chunkStarts[lo], chunkStarts[hi]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (lo + hi) >>> 1;                       // Делим пополам: левую половину отдаём пулу, правую считаем сами
+            ParseTask left = new ParseTask(buffer, bounds, chunkStarts, lo, mid);
+            left.fork();
+            List<T> right = new ParseTask(buffer, bounds, chunkStarts, mid, hi).compute();
+            List<T> result = left.join();
+            result.addAll(right);                            // Склеиваем в порядке файла
+            return result;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {  // Поток байтов поверх буфера
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
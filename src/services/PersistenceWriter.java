@@ -0,0 +1,216 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import com.google.gson.JsonObject;                            // Импорт JSON-объекта — формат записей журнала
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+import java.io.UncheckedIOException;                          // Импорт непроверяемой обёртки — так flush() сообщает о несохранённых изменениях
+import java.util.*;                                          // Импорт коллекций (List, ArrayList, Collections)
+import java.util.concurrent.*;                               // Импорт пулов потоков и Future
+
+/**
+ * Фоновый писатель с групповой фиксацией (group commit).
+ * Изменения не пишутся на диск в потоке вызывающего (в приложении это поток Swing EDT):
+ * они копятся в памяти, подряд идущие изменения одной сущности склеиваются, и всё сбрасывается в журнал пачкой —
+ * по таймеру или при достижении порога размера пачки. Вся работа с диском идёт в одном потоке.
+ */
+public class PersistenceWriter {                             // Публичный класс фонового писателя
+
+    /**
+     * Задача записи полного снимка данных (вызывается при сворачивании журнала)
+     */
+    public interface SnapshotTask {
+        void writeSnapshot() throws IOException;             // Записывает снимки всех данных на диск
+    }
+
+    private final MutationJournal journal;                   // Поле: журнал, в который сбрасываются изменения
+    private final SnapshotTask snapshotTask;                 // Поле: задача записи снимка при сворачивании журнала
+    private final int compactionThreshold;                   // Поле: число записей журнала, после которого он сворачивается
+    private final int batchSize;                             // Поле: размер пачки, при котором сброс запускается досрочно
+    private final ScheduledExecutorService executor;         // Поле: единственный поток, который пишет на диск
+    private final Thread shutdownHook;                       // Поле: хук завершения JVM — сбрасывает всё несохранённое
+
+    private List<JsonObject> pending;                        // Поле: несохранённые записи в порядке поступления
+    private String lastKey;                                  // Поле: ключ сущности последней записи в очереди
+    private boolean flushScheduled;                          // Поле: досрочный сброс уже поставлен в очередь
+    private IOException failure;                             // Поле: ошибка записи, из-за которой часть изменений пока есть только в памяти
+    private boolean closed;                                  // Поле: писатель остановлен
+
+    public PersistenceWriter(MutationJournal journal, SnapshotTask snapshotTask, int compactionThreshold,
+                             long flushIntervalMillis, int batchSize) {
+        this.journal = journal;                              // Сохраняем журнал
+        this.snapshotTask = snapshotTask;                    // Сохраняем задачу записи снимка
+        this.compactionThreshold = compactionThreshold;      // Сохраняем порог сворачивания
+        this.batchSize = batchSize;                          // Сохраняем порог размера пачки
+        this.pending = new ArrayList<>();                    // Порядок записей в журнале — порядок изменений
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "persistence-writer");  // Именованный поток — удобно при отладке
+            thread.setDaemon(true);                          // Поток-демон не мешает завершению приложения
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flushPending,  // Периодический сброс накопленных изменений
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        this.shutdownHook = new Thread(this::shutdown, "persistence-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);  // При выходе из приложения ничего не теряем
+    }
+
+    /**
+     * Ставит запись в очередь на сохранение и сразу возвращает управление.
+     * Запись склеивается с предыдущей, только если та последняя в очереди и у неё тот же ключ: записи разных
+     * сущностей зависят друг от друга (имя пользователя, оценки существующего пользователя), поэтому
+     * их взаимный порядок не меняется.
+     * @param key ключ сущности, например "user:5" или "rate:5:12"
+     * @param record запись журнала
+     */
+    public void submit(String key, JsonObject record) {
+        synchronized (this) {                                // Очередь изменяется из разных потоков
+            if (closed) {                                    // После остановки фоновый поток уже не работает
+                if (!writeBatch(Collections.singletonList(record))) {  // Пишем напрямую, чтобы изменение не потерялось
+                    System.out.println("Изменение не сохранено: " + record);
+                }
+                return;
+            }
+            if (key.equals(lastKey)) {                       // Сущность менялась только что — прежняя запись больше не нужна
+                pending.set(pending.size() - 1, record);
+            } else {
+                pending.add(record);
+                lastKey = key;
+            }
+            if (pending.size() < batchSize || flushScheduled) {  // Пачка ещё не набрана или сброс уже запланирован
+                return;
+            }
+            flushScheduled = true;                           // Помечаем, что досрочный сброс запланирован
+        }
+        executor.execute(this::flushPending);                // Пачка набрана — сбрасываем, не дожидаясь таймера
+    }
+
+    /**
+     * Синхронно сбрасывает все накопленные изменения в журнал.
+     * Нужен перед остановкой или когда вызывающему важно, что данные уже на диске.
+     * @throws UncheckedIOException если ни журнал, ни снимок записать не удалось — изменения остались в очереди
+     */
+    public void flush() {
+        runOnWriter(this::flushPending);                     // Сброс выполняется в потоке писателя — без гонок за файл
+        IOException error;
+        synchronized (this) {
+            error = failure;
+        }
+        if (error != null) {
+            throw new UncheckedIOException("Изменения не записаны на диск и пока хранятся только в памяти", error);
+        }
+    }
+
+    /**
+     * Синхронно сворачивает журнал: сбрасывает очередь, пишет полный снимок и очищает журнал
+     */
+    public void compact() {
+        runOnWriter(() -> {
+            flushPending();                                  // Сначала всё накопленное — в журнал
+            compactJournal();                                // Затем снимок и очистка журнала
+        });
+    }
+
+    /**
+     * Останавливает писатель: сбрасывает всё накопленное и закрывает журнал.
+     * Вызывается явно или автоматически из хука завершения JVM.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (closed) {                                    // Повторная остановка ничего не делает
+                return;
+            }
+        }
+        try {
+            flush();                                         // Сбрасываем всё, что успело накопиться
+        } catch (UncheckedIOException e) {                   // Повторить запись после остановки уже некому
+            System.out.println("Часть изменений не сохранена: " + e.getCause().getMessage());
+        }
+        synchronized (this) {
+            closed = true;                                   // Дальнейшие записи пойдут напрямую в журнал
+        }
+        executor.shutdown();                                 // Останавливаем фоновый поток
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);  // Даём ему завершить текущую работу
+            journal.close();                                 // Закрываем файл журнала
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();              // Восстанавливаем флаг прерывания
+        } catch (IOException e) {
+            System.out.println("Ошибка при закрытии журнала: " + e.getMessage());
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);  // Хук больше не нужен
+        } catch (IllegalStateException e) {
+            // JVM уже завершается (мы внутри самого хука) — снимать хук не нужно
+        }
+    }
+
+    // ===== РАБОТА В ПОТОКЕ ПИСАТЕЛЯ =====
+
+    private void flushPending() {                            // Забирает накопленную пачку и пишет её одним махом
+        List<JsonObject> batch;                              // Пачка для записи
+        synchronized (this) {
+            flushScheduled = false;                          // Досрочный сброс выполняется прямо сейчас
+            if (pending.isEmpty()) {                         // Писать нечего
+                return;
+            }
+            batch = pending;                                 // Забираем записи в порядке поступления
+            pending = new ArrayList<>();                     // Новые изменения копятся в новой очереди
+            lastKey = null;                                  // Записанное уже не склеивается
+        }
+        if (!writeBatch(batch)) {                            // Одна запись на диск на всю пачку
+            synchronized (this) {
+                pending.addAll(0, batch);                    // Не записанная пачка остаётся впереди новых изменений — повторим при следующем сбросе
+            }
+            return;
+        }
+        if (journal.getRecordCount() >= compactionThreshold) {  // Журнал слишком разросся
+            compactJournal();                                // Сворачиваем его в снимок
+        }
+    }
+
+    private boolean writeBatch(List<JsonObject> batch) {     // Дописывает пачку в журнал; false — изменения пачки пока не сохранены
+        try {
+            journal.appendAll(batch);                        // Все записи пачки — одним сбросом буфера
+            synchronized (this) {
+                failure = null;
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Ошибка при записи в журнал: " + e.getMessage());
+            if (compactJournal()) {                          // Изменения пачки уже применены в памяти — их сохранит снимок
+                return true;
+            }
+            synchronized (this) {
+                failure = e;
+            }
+            return false;
+        }
+    }
+
+    private boolean compactJournal() {                       // Пишет полный снимок и очищает журнал; false — не удалось
+        try {
+            snapshotTask.writeSnapshot();                    // Полные снимки всех данных
+            journal.truncate();                              // Все изменения уже в снимках — журнал больше не нужен
+            synchronized (this) {
+                failure = null;                              // Всё, что было в памяти, теперь на диске
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Ошибка при сворачивании журнала: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void runOnWriter(Runnable task) {                // Выполняет задачу в потоке писателя и ждёт её завершения
+        synchronized (this) {
+            if (closed) {                                    // Фоновый поток уже остановлен — очередь пуста
+                return;
+            }
+        }
+        try {
+            executor.submit(task).get();                     // Ставим задачу в очередь и ждём результата
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();              // Восстанавливаем флаг прерывания
+        } catch (ExecutionException | RejectedExecutionException e) {
+            System.out.println("Ошибка фоновой записи: " + e.getMessage());
+        }
+    }
+}
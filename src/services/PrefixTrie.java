@@ -0,0 +1,243 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Префиксное дерево для подсказок при вводе.
+ *
+ * Термин (нормализованная строка) доступен по префиксу самой строки и по префиксу каждого следующего её слова:
+ * «кровавая мэри» находится и по «кро», и по «мэ». В каждом узле хранятся готовые TOP лучших терминов поддерева
+ * (по весу, затем по алфавиту), поэтому запрос — спуск по символам префикса и чтение готового массива, без обхода
+ * поддерева и без сортировки. При изменении веса или состава пересчитываются только узлы на путях термина.
+ */
+public class PrefixTrie {                                    // Публичный класс префиксного дерева
+
+    public static final int TOP = 10;                        // Константа: сколько лучших терминов хранит каждый узел
+    private static final double WEIGHT_SCALE = 1_000_000;    // Константа: вес хранится целым в миллионных — сложение и вычитание точные
+
+    /**
+     * Термин словаря: ключ, текст для показа, суммарный вес и число вхождений, из которых он сложен
+     */
+    public static final class Term {
+        private final String key;
+        private final String text;
+        private long weight;                                 // В миллионных долях
+        private int references;
+
+        Term(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getWeight() {
+            return weight / WEIGHT_SCALE;
+        }
+
+        public int getReferences() {
+            return references;
+        }
+    }
+
+    private static final Comparator<Term> BEST_FIRST =       // Константа: порядок подсказок — тяжелее выше, затем чаще, затем по алфавиту
+            Comparator.comparingLong((Term t) -> -t.weight).thenComparingInt(t -> -t.references).thenComparing(t -> t.key);
+    private static final Term[] NO_TERMS = new Term[0];
+
+    private final Node root;                                 // Поле: корень (пустой префикс)
+    private final Map<String, Term> terms;                   // Поле: ключ → термин
+
+    public PrefixTrie() {
+        this.root = new Node();
+        this.terms = new HashMap<>();
+    }
+
+    public int size() {                                      // Различных терминов в словаре
+        return terms.size();
+    }
+
+    /**
+     * Добавляет к термину key одно вхождение с весом weight; text показывается, пока термин существует
+     */
+    public void add(String key, String text, double weight) {
+        add(key, text, weight, true);
+    }
+
+    /**
+     * То же, что add, но без пересчёта лучших — для начального заполнения; затем один раз вызывается finishBulk()
+     */
+    public void addBulk(String key, String text, double weight) {
+        add(key, text, weight, false);
+    }
+
+    public void finishBulk() {                               // Пересчёт лучших во всём дереве за один обход
+        refreshAll(root);
+    }
+
+    private void add(String key, String text, double weight, boolean refresh) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        Term term = terms.get(key);
+        boolean created = term == null;
+        if (created) {
+            term = new Term(key, text);
+            terms.put(key, term);
+        }
+        term.weight += units(weight);
+        term.references++;
+        for (int start : wordStarts(key)) {
+            List<Node> path = path(key, start);
+            if (created) {
+                path.get(path.size() - 1).own.add(term);
+            }
+            if (refresh) {
+                refresh(path);
+            }
+        }
+    }
+
+    /**
+     * Убирает одно вхождение термина с тем же весом, с каким оно добавлялось
+     */
+    public void remove(String key, double weight) {
+        Term term = key == null ? null : terms.get(key);
+        if (term == null) {
+            return;
+        }
+        term.weight -= units(weight);
+        boolean gone = --term.references == 0;
+        if (gone) {
+            terms.remove(key);
+        }
+        for (int start : wordStarts(key)) {
+            List<Node> path = path(key, start);
+            if (gone) {
+                path.get(path.size() - 1).own.remove(term);
+            }
+            refresh(path);
+        }
+    }
+
+    /**
+     * Не больше limit (и не больше TOP) лучших терминов, доступных по префиксу; prefix уже нормализован
+     */
+    public List<Term> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(Math.max(limit, 0), node.top.length));  // Готовый массив, без копии
+    }
+
+    private List<Node> path(String key, int start) {  // Узлы от корня до конца суффикса key с позиции start
+        List<Node> path = new ArrayList<>(key.length() - start + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = start; i < key.length(); i++) {
+            Node next = node.child(key.charAt(i));
+            if (next == null) {
+                next = node.addChild(key.charAt(i));         // При удалении путь уже есть — добавлять не придётся
+            }
+            node = next;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void refresh(List<Node> path) {                  // Пересчёт лучших снизу вверх; пустые узлы отцепляются
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (i > 0 && node.own.isEmpty() && node.size == 0) {
+                path.get(i - 1).removeChild(node);
+                node.top = NO_TERMS;
+                continue;
+            }
+            node.computeTop();
+        }
+    }
+
+    private void refreshAll(Node node) {                     // Снизу вверх по всему поддереву
+        for (int c = 0; c < node.size; c++) {
+            refreshAll(node.children[c]);
+        }
+        node.computeTop();
+    }
+
+    private static long units(double weight) {
+        return Math.round(weight * WEIGHT_SCALE);
+    }
+
+    private static List<Integer> wordStarts(String key) {    // Начало строки и начала следующих слов
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 1; i < key.length(); i++) {
+            if (key.charAt(i - 1) == ' ' && key.charAt(i) != ' ') {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private static final class Node {                        // Узел: потомки по символу (отсортированы) и лучшие термины поддерева
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private final List<Term> own = new ArrayList<>(1);   // Термины (или их суффиксы), заканчивающиеся в этом узле
+        private Term[] top = NO_TERMS;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char label) {
+            int index = -Arrays.binarySearch(labels, 0, size, label) - 1;
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, size * 2));
+                children = Arrays.copyOf(children, labels.length);
+            }
+            System.arraycopy(labels, index, labels, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            labels[index] = label;
+            Node child = new Node();
+            children[index] = child;
+            size++;
+            return child;
+        }
+
+        void computeTop() {                                  // Лучшие из своих терминов и лучших у потомков
+            List<Term> candidates = new ArrayList<>(own);
+            for (int c = 0; c < size; c++) {
+                Collections.addAll(candidates, children[c].top);
+            }
+            candidates.sort(BEST_FIRST);
+            List<Term> best = new ArrayList<>(Math.min(TOP, candidates.size()));
+            for (Term term : candidates) {
+                if (best.size() == TOP) {
+                    break;
+                }
+                if (best.isEmpty() || best.get(best.size() - 1) != term) {  // Термин может прийти через два своих слова
+                    best.add(term);
+                }
+            }
+            top = best.toArray(NO_TERMS);
+        }
+
+        void removeChild(Node child) {
+            for (int i = 0; i < size; i++) {
+                if (children[i] == child) {
+                    System.arraycopy(labels, i + 1, labels, i, size - i - 1);
+                    System.arraycopy(children, i + 1, children, i, size - i - 1);
+                    children[--size] = null;
+                    return;
+                }
+            }
+        }
+    }
+}
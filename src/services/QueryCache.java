@@ -0,0 +1,152 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Ограниченный кэш результатов запросов с проверкой версии каталога.
+ *
+ * Запись хранит версию каталога, при которой она вычислена: если хранилище с тех пор изменилось, запись считается
+ * устаревшей и при обращении удаляется. Кроме того, запись живёт не дольше ttlMillis, а при переполнении вытесняется
+ * та, к которой дольше всего не обращались (LinkedHashMap в порядке доступа).
+ */
+public class QueryCache<K, V> {                              // Публичный класс кэша запросов
+
+    private final int maxSize;                               // Поле: наибольшее число записей (0 — кэш выключен)
+    private final long ttlMillis;                            // Поле: время жизни записи в мс (0 — без ограничения)
+    private final LinkedHashMap<K, Entry<V>> entries;        // Поле: ключ → запись; порядок — от давно использованных к недавним
+    private long hits;                                       // Поле: найдено в кэше
+    private long misses;                                     // Поле: не найдено (в том числе устаревшие)
+    private long evictions;                                  // Поле: вытеснено при переполнении
+    private long expirations;                                // Поле: удалено по времени жизни
+    private long invalidations;                              // Поле: удалено из-за изменения каталога
+
+    public QueryCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.ttlMillis = Math.max(ttlMillis, 0);
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > QueryCache.this.maxSize) {      // Самая давно использованная запись — первая
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Значение, вычисленное при той же версии каталога и ещё не истёкшее; null — промах
+     */
+    public synchronized V get(K key, long version) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.version != version) {
+            entries.remove(key);
+            invalidations++;
+            entry = null;
+        } else if (entry != null && ttlMillis > 0 && System.currentTimeMillis() - entry.created > ttlMillis) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, long version, V value) {  // Запоминает значение, вычисленное при версии version
+        if (isEnabled()) {
+            entries.put(key, new Entry<>(value, version, System.currentTimeMillis()));
+        }
+    }
+
+    public synchronized void clear() {                       // Удаляет все записи (счётчики сохраняются)
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {                   // Снимок счётчиков
+        return new Stats(hits, misses, evictions, expirations, invalidations, entries.size(), maxSize);
+    }
+
+    private static final class Entry<V> {                    // Запись: значение, версия каталога и время вычисления
+        private final V value;
+        private final long version;
+        private final long created;
+
+        Entry(V value, long version, long created) {
+            this.value = value;
+            this.version = version;
+            this.created = created;
+        }
+    }
+
+    /**
+     * Счётчики кэша на момент запроса
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+        private final int size;
+        private final int maxSize;
+
+        Stats(long hits, long misses, long evictions, long expirations, long invalidations, int size, int maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public double getHitRate() {                         // Доля попаданий среди всех обращений
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("попаданий %d, промахов %d (%.0f%% попаданий), вытеснено %d, истекло %d, "
+                            + "устарело после изменений %d, записей %d из %d",
+                    hits, misses, getHitRate() * 100, evictions, expirations, invalidations, size, maxSize);
+        }
+    }
+}
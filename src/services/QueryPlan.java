@@ -0,0 +1,129 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * План выполнения расширенного поиска (название, основа, сложность, диапазоны времени).
+ *
+ * Ведущий шаг даёт кандидатов (индекс с наименьшей оценкой или полный перебор), затем кандидаты проверяются
+ * по остальным достаточно селективным индексам, и только после этого — остаточными условиями на самом коктейле.
+ */
+public class QueryPlan {                                     // Публичный класс плана
+
+    public enum Access {                                     // Способ доступа к коктейлям
+        FULL_SCAN("полный перебор"),
+        ALCOHOL_BASE_INDEX("индекс по основе"),
+        DIFFICULTY_INDEX("индекс по сложности"),
+        NAME_NGRAM_INDEX("триграммный индекс названий"),
+        PREPARATION_TIME_INDEX("индекс времени приготовления"),
+        STEP_DURATION_INDEX("индекс длительности шагов");
+
+        private final String title;                          // Поле: название для explain()
+
+        Access(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Шаг плана: способ доступа, значение условия и оценка числа коктейлей, которые он пропускает
+     */
+    public static class Step {
+        private final Access access;
+        private final String argument;
+        private final int estimate;
+
+        public Step(Access access, String argument, int estimate) {
+            this.access = access;
+            this.argument = argument;
+            this.estimate = estimate;
+        }
+
+        public Access getAccess() {
+            return access;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        public int getEstimate() {
+            return estimate;
+        }
+
+        @Override
+        public String toString() {
+            return access.getTitle() + (argument != null ? " \"" + argument + "\"" : "") + " (~" + estimate + ")";
+        }
+    }
+
+    private final int total;                                 // Поле: всего коктейлей
+    private final Step driver;                               // Поле: ведущий шаг — источник кандидатов
+    private final List<Step> probes;                         // Поле: индексы, по которым проверяются кандидаты
+    private final List<String> residuals;                    // Поле: остаточные условия, проверяемые на коктейле
+    private final List<String> statistics;                   // Поле: статистика, на которой основан выбор
+
+    public QueryPlan(int total, Step driver, List<Step> probes, List<String> residuals, List<String> statistics) {
+        this.total = total;
+        this.driver = driver;
+        this.probes = probes;
+        this.residuals = residuals;
+        this.statistics = statistics;
+    }
+
+    public Step getDriver() {
+        return driver;
+    }
+
+    public List<Step> getProbes() {
+        return probes;
+    }
+
+    public List<String> getResiduals() {
+        return residuals;
+    }
+
+    /**
+     * Зависит ли план от индекса данного вида (ведущим шагом или проверкой)
+     */
+    public boolean uses(Access access) {
+        if (driver.getAccess() == access) {
+            return true;
+        }
+        for (Step probe : probes) {
+            if (probe.getAccess() == access) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Выбранный план в читаемом виде
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Всего коктейлей: ").append(total).append('\n');
+        for (String line : statistics) {
+            sb.append("  ").append(line).append('\n');
+        }
+        int step = 1;
+        sb.append(step++).append(". Кандидаты: ").append(driver).append('\n');
+        for (Step probe : probes) {
+            sb.append(step++).append(". Пересечение: ").append(probe).append('\n');
+        }
+        for (String residual : residuals) {
+            sb.append(step++).append(". Проверка: ").append(residual).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
@@ -0,0 +1,117 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.util.*;                                          // Импорт коллекций
+import java.util.function.IntPredicate;                      // Импорт проверки по ID
+
+/**
+ * Упорядоченный индекс целого поля для запросов «от a до b».
+ *
+ * Пары (значение, ID) упакованы в long (значение — в старших 32 битах) и хранятся в одном отсортированном
+ * массиве примитивов: границы диапазона находятся двумя двоичными поисками, число подходящих — их разность,
+ * без перебора коктейлей и без объектов-обёрток. Вставка и удаление сдвигают хвост массива (System.arraycopy).
+ */
+public class RangeIndex {                                    // Публичный класс индекса диапазонов
+
+    private long[] entries;                                  // Поле: упакованные пары по возрастанию значения, затем ID
+    private int size;                                        // Поле: занятая часть массива [0, size)
+    private final Map<Integer, Integer> values;              // Поле: ID → значение, под которым он лежит в массиве
+
+    public RangeIndex() {
+        this.entries = new long[16];
+        this.values = new HashMap<>();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int id, int value) {                     // Добавляет ID или переносит его к новому значению
+        remove(id);
+        long entry = pack(value, id);
+        int position = -Arrays.binarySearch(entries, 0, size, entry) - 1;
+        ensureCapacity();
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        entries[position] = entry;
+        size++;
+        values.put(id, value);
+    }
+
+    /**
+     * Добавление без сортировки — для начального заполнения; затем один раз вызывается finishBulk()
+     */
+    public void addBulk(int id, int value) {
+        ensureCapacity();
+        entries[size++] = pack(value, id);
+        values.put(id, value);
+    }
+
+    public void finishBulk() {
+        Arrays.sort(entries, 0, size);
+    }
+
+    public void remove(int id) {
+        Integer value = values.remove(id);
+        if (value == null) {
+            return;
+        }
+        int position = Arrays.binarySearch(entries, 0, size, pack(value, id));
+        System.arraycopy(entries, position + 1, entries, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * Сколько ID со значением в диапазоне — два двоичных поиска
+     */
+    public int count(TimeRange range) {
+        return range.isEmpty() ? 0 : upper(range.getMax()) - lower(range.getMin());
+    }
+
+    /**
+     * ID со значением в диапазоне, по возрастанию ID (как списки остальных индексов)
+     */
+    public int[] ids(TimeRange range) {
+        if (range.isEmpty()) {
+            return new int[0];
+        }
+        int from = lower(range.getMin());
+        int to = upper(range.getMax());
+        int[] ids = new int[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = (int) entries[i];
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Проверка «значение ID в диапазоне» без поиска в массиве
+     */
+    public IntPredicate prober(TimeRange range) {
+        return id -> {
+            Integer value = values.get(id);
+            return value != null && range.contains(value);
+        };
+    }
+
+    private int lower(int min) {                             // Первая позиция со значением >= min
+        int position = Arrays.binarySearch(entries, 0, size, (long) min << 32);  // Меньше любой пары с этим значением
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private int upper(int max) {                             // Первая позиция со значением > max
+        if (max == Integer.MAX_VALUE) {
+            return size;
+        }
+        return lower(max + 1);
+    }
+
+    private void ensureCapacity() {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+    }
+
+    private static long pack(int value, int id) {            // Значение в старших битах — порядок long совпадает с порядком (значение, ID)
+        return ((long) value << 32) | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,24 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Rating;                                        // Импорт модели оценки
+import com.caucho.hessian.io.Hessian2Input;                   // Импорт двоичного читателя Hessian 2
+import com.caucho.hessian.io.Hessian2Output;                  // Импорт двоичного писателя Hessian 2
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+
+/**
+ * Двоичное представление оценки в формате Hessian 2: три целых числа подряд
+ */
+public class RatingHessianCodec implements HessianRecordCodec<Rating> {
+
+    @Override
+    public void write(Hessian2Output out, Rating r) throws IOException {
+        out.writeInt(r.getUserId());
+        out.writeInt(r.getCocktailId());
+        out.writeInt(r.getValue());
+    }
+
+    @Override
+    public Rating read(Hessian2Input in) throws IOException {
+        return new Rating(in.readInt(), in.readInt(), in.readInt());
+    }
+}
@@ -0,0 +1,30 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Rating;                                        // Импорт модели оценки
+import com.google.gson.TypeAdapter;                           // Импорт базового класса потокового адаптера Gson
+import com.google.gson.stream.JsonReader;                     // Импорт потокового читателя JSON
+import com.google.gson.stream.JsonWriter;                     // Импорт потокового писателя JSON
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+
+/**
+ * Компактное JSON-представление оценки: массив из трёх чисел [userId, cocktailId, value]
+ */
+public class RatingTypeAdapter extends TypeAdapter<Rating> {  // Адаптер Gson для модели оценки
+
+    @Override
+    public void write(JsonWriter out, Rating r) throws IOException {  // Записывает оценку тройкой чисел
+        out.beginArray();
+        out.value(r.getUserId());                            // ID пользователя
+        out.value(r.getCocktailId());                        // ID коктейля
+        out.value(r.getValue());                             // Оценка
+        out.endArray();
+    }
+
+    @Override
+    public Rating read(JsonReader in) throws IOException {   // Читает тройку чисел в том же порядке
+        in.beginArray();
+        Rating rating = new Rating(in.nextInt(), in.nextInt(), in.nextInt());
+        in.endArray();
+        return rating;
+    }
+}
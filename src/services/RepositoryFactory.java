@@ -0,0 +1,54 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.sql.SQLException;                                 // Импорт исключения JDBC
+
+/**
+ * Выбор хранилища по системным свойствам:
+ *   -Dcocktails.repository=json|memory|jdbc   (по умолчанию json — файлы в resources/data)
+ *   -Dcocktails.jdbcUrl=jdbc:h2:./resources/data/cocktails-db   (для jdbc; драйвер H2 или SQLite должен быть в classpath)
+ */
+public class RepositoryFactory {                             // Публичный класс фабрики хранилищ
+
+    private static final String REPOSITORY_PROPERTY = "cocktails.repository";  // Константа: системное свойство с типом хранилища
+    private static final String JDBC_URL_PROPERTY = "cocktails.jdbcUrl";       // Константа: системное свойство с адресом базы
+
+    private RepositoryFactory() {                            // Только статические методы
+    }
+
+    /**
+     * Создаёт хранилище, заданное системными свойствами
+     */
+    public static DataRepository create() {
+        String kind = System.getProperty(REPOSITORY_PROPERTY, "json");
+        switch (kind.toLowerCase()) {
+            case "memory":
+                return new InMemoryRepository();             // Пустое хранилище без файлов
+            case "jdbc":
+                return createJdbc(System.getProperty(JDBC_URL_PROPERTY, JdbcRepository.DEFAULT_URL));
+            case "json":
+                return new DatabaseService();
+            default:
+                System.out.println("Неизвестный тип хранилища: " + kind + ", используется json");
+                return new DatabaseService();
+        }
+    }
+
+    /**
+     * Открывает SQL-базу; при первом запуске переносит в неё данные из файлов.
+     * Если базу открыть не удалось (например, нет драйвера), работаем с файлами.
+     */
+    public static DataRepository createJdbc(String url) {
+        try {
+            JdbcRepository repository = new JdbcRepository(url);
+            if (repository.isEmpty()) {                      // Новая база — переносим данные из JSON-хранилища
+                DatabaseService files = new DatabaseService();
+                repository.importFrom(files);
+                files.shutdown();
+            }
+            return repository;
+        } catch (SQLException e) {
+            System.out.println("Ошибка при открытии базы " + url + ": " + e.getMessage());
+            return new DatabaseService();
+        }
+    }
+}
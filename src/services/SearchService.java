@@ -1,16 +1,38 @@
 package services;  // Объявляем, что класс находится в пакете services (бизнес-логика)
 
+import models.BarMatch;                     // Импортируем результат поиска по запасу бара
 import models.Cocktail;                     // Импортируем модель коктейля
+import models.CocktailSummary;              // Импортируем краткое представление коктейля (для списков результатов)
+import models.Page;                         // Импортируем страницу результата (постраничные варианты поиска)
+import models.Suggestion;                   // Импортируем подсказку при вводе
+import models.TextMatch;                    // Импортируем результат полнотекстового поиска
+import java.util.ArrayList;                  // Импортируем ArrayList для пустого результата
+import java.util.Arrays;                     // Импортируем Arrays для ключа кэша
+import java.util.Collection;                 // Импортируем Collection для набора ингредиентов в баре
 import java.util.List;                       // Импортируем интерфейс List для возврата списков
-import java.util.stream.Collectors;          // Импортируем Collectors для сбора результатов Stream
+import java.util.Map;                        // Импортируем Map для счётчиков «значение → число коктейлей»
+import java.util.function.Supplier;          // Импортируем Supplier для вычисления результата при промахе кэша
 
 public class SearchService {                 // Класс сервиса поиска коктейлей
 
-    private DatabaseService databaseService; // Поле: ссылка на сервис, работающий с данными (JSON-файлы)
+    public static final int DEFAULT_CACHE_SIZE = 256;          // Константа: записей в кэше результатов по умолчанию
+    public static final long DEFAULT_CACHE_TTL = 5 * 60 * 1000;  // Константа: время жизни записи по умолчанию (5 минут)
 
-    // Конструктор — принимает зависимость от DatabaseService (внедрение зависимости)
-    public SearchService(DatabaseService databaseService) {
+    private DataRepository databaseService;  // Поле: ссылка на хранилище данных (JSON-файлы, память или SQL)
+    private final QueryCache<List<Object>, List<?>> cache;  // Поле: результаты поиска по нормализованному запросу
+
+    // Конструктор — принимает зависимость от хранилища (внедрение зависимости)
+    public SearchService(DataRepository databaseService) {
+        this(databaseService, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * @param cacheSize наибольшее число запомненных результатов (0 — без кэша)
+     * @param cacheTtlMillis сколько миллисекунд результат считается свежим (0 — пока не изменится каталог)
+     */
+    public SearchService(DataRepository databaseService, int cacheSize, long cacheTtlMillis) {
         this.databaseService = databaseService;  // Сохраняем ссылку на источник данных
+        this.cache = new QueryCache<>(cacheSize, cacheTtlMillis);
     }
 
     /**
@@ -23,12 +45,44 @@ public class SearchService {                 // Класс сервиса пои
             return databaseService.getAllCocktails();
         }
 
-        String lowerQuery = query.toLowerCase(); // Приводим запрос к нижнему регистру для поиска без учёта регистра
+        // Оставляем только коктейли, в названии которых есть подстрока (без учёта регистра)
+        List<Cocktail> found = find(query, null, null, null, null);
+        // Ничего не нашлось — возможно, опечатка: ищем похожие названия
+        return found.isEmpty() ? searchByNameFuzzy(query) : found;
+    }
+
+    /**
+     * Поиск названий с опечатками («Маритни» → «Мартини»): сначала самые похожие.
+     * Допуск зависит от длины запроса — до одной правки для коротких слов и до двух для длинных;
+     * «ё»/«е» и латинские буквы вместо похожих кириллических не считаются ошибкой
+     */
+    public List<Cocktail> searchByNameFuzzy(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return databaseService.findCocktailsFuzzy(query, FuzzyNameIndex.defaultDistance(query));
+    }
 
-        // Фильтруем все коктейли: оставляем только те, в названии которых есть подстрока
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> c.getName().toLowerCase().contains(lowerQuery)) // Сравниваем в нижнем регистре
-                .collect(Collectors.toList()); // Собираем результат в список
+    /**
+     * Подсказки при вводе названия: коктейли и ингредиенты, начало названия (или слова в нём) которых совпадает
+     * с введённым текстом; выше — популярные и лучше оценённые. Рассчитано на вызов при каждом нажатии клавиши
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return databaseService.suggest(prefix, limit);
+    }
+
+    /**
+     * Полнотекстовый поиск по описаниям, шагам и советам («взбить с белком»): сначала самые релевантные.
+     * Формы слова не важны, часть запроса в кавычках ищется фразой
+     */
+    public List<TextMatch> searchText(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return databaseService.searchText(query, Math.max(0, limit));
     }
 
     /**
@@ -41,27 +95,50 @@ public class SearchService {                 // Класс сервиса пои
         }
 
         // Фильтруем коктейли по точному совпадению алкогольной основы (игнорируя регистр)
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> c.getAlcoholBase().equalsIgnoreCase(alcoholBase))
-                .collect(Collectors.toList());
+        return find(null, alcoholBase, null, null, null);
     }
 
     /**
      * Поиск коктейлей, содержащих указанный ингредиент (по подстроке в названии ингредиента)
      */
     public List<Cocktail> searchByIngredient(String ingredientName) {
-        // Если запрос пустой — возвращаем все коктейли
-        if (ingredientName == null || ingredientName.isEmpty()) {
+        // Если запрос пустой (или из одних пробелов) — возвращаем все коктейли
+        if (ingredientName == null || ingredientName.trim().isEmpty()) {
             return databaseService.getAllCocktails();
         }
 
-        String lowerQuery = ingredientName.toLowerCase(); // Приводим запрос к нижнему регистру
+        // Оставляем те, у которых хотя бы один ингредиент содержит подстроку (без учёта регистра)
+        return databaseService.findCocktailsByIngredient(ingredientName);
+    }
+
+    /**
+     * Поиск по нескольким ингредиентам с операторами AND/OR/NOT и скобками,
+     * например "лайм AND ром NOT сахар" или "(джин OR водка) AND тоник"
+     * @throws IllegalArgumentException если в запросе ошибка
+     */
+    public List<Cocktail> searchByIngredients(String query) {
+        // Пустой запрос — без фильтра, как и у остальных методов поиска
+        if (query == null || query.trim().isEmpty()) {
+            return databaseService.getAllCocktails();
+        }
+
+        return databaseService.findCocktailsByIngredients(query);
+    }
+
+    /**
+     * «Что можно приготовить из моего бара»: коктейли, все ингредиенты которых есть в запасе
+     */
+    public List<BarMatch> searchByBar(Collection<String> inventory) {
+        return searchByBar(inventory, 0);
+    }
 
-        // Фильтруем коктейли: оставляем те, у которых хотя бы один ингредиент содержит подстроку
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> c.getIngredients().stream()     // Переходим к потоку ингредиентов коктейля
-                        .anyMatch(ing -> ing.getName().toLowerCase().contains(lowerQuery))) // Проверяем совпадение
-                .collect(Collectors.toList());
+    /**
+     * То же, но с коктейлями, которым не хватает не больше maxMissing ингредиентов;
+     * сначала те, которым не хватает меньше
+     */
+    public List<BarMatch> searchByBar(Collection<String> inventory, int maxMissing) {
+        // Отрицательное число недостающих не имеет смысла — считаем, что нужен полный набор
+        return databaseService.findCocktailsForBar(inventory, Math.max(0, maxMissing));
     }
 
     /**
@@ -69,24 +146,44 @@ public class SearchService {                 // Класс сервиса пои
      * Любой параметр может быть null или пустым — тогда он игнорируется
      */
     public List<Cocktail> advancedSearch(String name, String alcoholBase, String difficulty) {
-        return databaseService.getAllCocktails().stream()
-                .filter(c -> {                                   // Фильтруем каждый коктейль
-                    // Проверка по названию: совпадение подстроки или параметр не указан
-                    boolean nameMatch = name == null || name.isEmpty() ||
-                            c.getName().toLowerCase().contains(name.toLowerCase());
+        // Название — подстрока, основа и сложность — точное совпадение без учёта регистра.
+        // Коктейль подходит, только если все активные фильтры совпадают; фильтры применяет хранилище
+        return find(name, alcoholBase, difficulty, null, null);
+    }
 
-                    // Проверка по алкогольной основе: точное совпадение или параметр не указан
-                    boolean alcoholMatch = alcoholBase == null || alcoholBase.isEmpty() ||
-                            c.getAlcoholBase().equalsIgnoreCase(alcoholBase);
+    /**
+     * Расширенный поиск с диапазонами: время приготовления и суммарная длительность шагов (в минутах).
+     * null вместо диапазона — без ограничения; диапазоны выбираются по индексу вместе с остальными условиями
+     */
+    public List<Cocktail> advancedSearch(String name, String alcoholBase, String difficulty,
+                                         TimeRange preparationTime, TimeRange stepsDuration) {
+        return find(name, alcoholBase, difficulty, preparationTime, stepsDuration);
+    }
 
-                    // Проверка по сложности: точное совпадение или параметр не указан
-                    boolean difficultyMatch = difficulty == null || difficulty.isEmpty() ||
-                            c.getDifficulty().equalsIgnoreCase(difficulty);
+    /**
+     * Расширенный поиск, возвращающий краткие представления — для списка результатов.
+     * Полный коктейль загружается по ID, когда пользователь выбирает результат.
+     */
+    public List<CocktailSummary> advancedSearchSummaries(String name, String alcoholBase, String difficulty) {
+        return findSummaries(name, alcoholBase, difficulty, null, null);
+    }
 
-                    // Коктейль подходит, только если все активные фильтры совпадают
-                    return nameMatch && alcoholMatch && difficultyMatch;
-                })
-                .collect(Collectors.toList()); // Возвращаем отфильтрованный список
+    public List<CocktailSummary> advancedSearchSummaries(String name, String alcoholBase, String difficulty,
+                                                         TimeRange preparationTime, TimeRange stepsDuration) {
+        return findSummaries(name, alcoholBase, difficulty, preparationTime, stepsDuration);
+    }
+
+    /**
+     * План выполнения расширенного поиска с этими параметрами: какой индекс выбран и какие условия проверяются
+     * на коктейлях (для диагностики медленных запросов)
+     */
+    public String explainAdvancedSearch(String name, String alcoholBase, String difficulty) {
+        return databaseService.explainFindCocktails(name, alcoholBase, difficulty);
+    }
+
+    public String explainAdvancedSearch(String name, String alcoholBase, String difficulty,
+                                        TimeRange preparationTime, TimeRange stepsDuration) {
+        return databaseService.explainFindCocktails(name, alcoholBase, difficulty, preparationTime, stepsDuration);
     }
 
     /**
@@ -94,21 +191,154 @@ public class SearchService {                 // Класс сервиса пои
      * Отсортировано по алфавиту
      */
     public List<String> getAvailableAlcoholBases() {
-        return databaseService.getAllCocktails().stream()
-                .map(Cocktail::getAlcoholBase)      // Берём только алкогольную основу
-                .distinct()                         // Убираем дубликаты
-                .sorted()                           // Сортируем по алфавиту
-                .collect(Collectors.toList());     // Собираем в список
+        return databaseService.getAlcoholBases();  // Уникальные основы по алфавиту
     }
 
     /**
      * Возвращает список всех уникальных уровней сложности коктейлей
-     * Без сортировки (обычно их мало: "Лёгкий", "Средний", "Сложный")
+     * По алфавиту, как и алкогольные основы
      */
     public List<String> getAvailableDifficulties() {
-        return databaseService.getAllCocktails().stream()
-                .map(Cocktail::getDifficulty)       // Берём только сложность
-                .distinct()                         // Убираем повторения
-                .collect(Collectors.toList());      // Возвращаем список
+        return databaseService.getDifficulties();  // Уникальные уровни по алфавиту
+    }
+
+    /**
+     * Алкогольные основы с числом коктейлей у каждой (по алфавиту) — для подписей вида «Ром (1 204)»
+     */
+    public Map<String, Integer> getAlcoholBaseCounts() {
+        return databaseService.getAlcoholBaseCounts();
+    }
+
+    /**
+     * Уровни сложности с числом коктейлей у каждого (по алфавиту)
+     */
+    public Map<String, Integer> getDifficultyCounts() {
+        return databaseService.getDifficultyCounts();
+    }
+
+    /**
+     * Число коктейлей каждой основы среди уже найденных — один проход по результатам, без обращения к хранилищу
+     */
+    public Map<String, Integer> countAlcoholBases(List<CocktailSummary> results) {
+        return FacetCounts.count(results, CocktailSummary::getAlcoholBase);
+    }
+
+    /**
+     * Число коктейлей каждой сложности среди уже найденных
+     */
+    public Map<String, Integer> countDifficulties(List<CocktailSummary> results) {
+        return FacetCounts.count(results, CocktailSummary::getDifficulty);
+    }
+
+    // ===== КЭШ РЕЗУЛЬТАТОВ =====
+
+    /**
+     * Счётчики кэша результатов: попадания, промахи, вытеснения, истечения и сбросы из-за изменений каталога
+     */
+    public QueryCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private List<Cocktail> find(String name, String alcoholBase, String difficulty,
+                                TimeRange preparationTime, TimeRange stepsDuration) {
+        return cached(cacheKey("cocktails", name, alcoholBase, difficulty, preparationTime, stepsDuration),
+                () -> databaseService.findCocktails(name, alcoholBase, difficulty, preparationTime, stepsDuration));
+    }
+
+    private List<CocktailSummary> findSummaries(String name, String alcoholBase, String difficulty,
+                                                TimeRange preparationTime, TimeRange stepsDuration) {
+        return cached(cacheKey("summaries", name, alcoholBase, difficulty, preparationTime, stepsDuration),
+                () -> databaseService.findCocktailSummaries(name, alcoholBase, difficulty, preparationTime, stepsDuration));
+    }
+
+    @SuppressWarnings("unchecked")           // Тип значения однозначно задан первым элементом ключа
+    private <T> List<T> cached(List<Object> key, Supplier<List<T>> query) {
+        long version = databaseService.getCatalogVersion();  // Версию читаем до запроса: изменение во время него сделает запись устаревшей
+        if (version < 0 || !cache.isEnabled()) {             // Хранилище не сообщает об изменениях — кэшировать нельзя
+            return query.get();
+        }
+        List<T> result = (List<T>) cache.get(key, version);
+        if (result == null) {
+            result = query.get();
+            cache.put(key, version, result);
+        }
+        return new ArrayList<>(result);                      // Копия — вызывающий может менять список
+    }
+
+    private static List<Object> cacheKey(String kind, String name, String alcoholBase, String difficulty,
+                                         TimeRange preparationTime, TimeRange stepsDuration) {
+        // Запросы, которые хранилище выполняет одинаково, дают один ключ: регистр не важен, пустое условие = null
+        return Arrays.asList(kind, normalize(name), normalize(alcoholBase), normalize(difficulty),
+                preparationTime, stepsDuration);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase();
+    }
+
+    // ===== ПОСТРАНИЧНЫЕ ВАРИАНТЫ =====
+    // Курсор null — первая страница; следующая запрашивается по getNextCursor() предыдущей.
+    // Пустой запрос выдаёт каталог страницами без его копирования; найденное режется на страницы после поиска.
+
+    public Page<Cocktail> searchByName(String query, String cursor, int limit) {
+        if (query == null || query.isEmpty()) {
+            return PageCursor.allCocktails(databaseService, cursor, limit);
+        }
+        return PageCursor.slice(searchByName(query), cursor, limit);  // С тем же переходом к поиску с опечатками
+    }
+
+    public Page<Cocktail> searchByNameFuzzy(String query, String cursor, int limit) {
+        return PageCursor.slice(searchByNameFuzzy(query), cursor, limit);
+    }
+
+    public Page<TextMatch> searchText(String query, String cursor, int limit) {
+        PageCursor.checkLimit(limit);
+        long needed = (long) PageCursor.offset(cursor) + limit + 1;  // Лучшие до конца страницы и ещё один — узнать, есть ли следующая
+        return PageCursor.slice(searchText(query, (int) Math.min(needed, Integer.MAX_VALUE)), cursor, limit);
+    }
+
+    public Page<Cocktail> searchByAlcoholBase(String alcoholBase, String cursor, int limit) {
+        if (alcoholBase == null || alcoholBase.isEmpty()) {
+            return PageCursor.allCocktails(databaseService, cursor, limit);
+        }
+        return PageCursor.slice(find(null, alcoholBase, null, null, null), cursor, limit);
+    }
+
+    public Page<Cocktail> searchByIngredient(String ingredientName, String cursor, int limit) {
+        if (ingredientName == null || ingredientName.trim().isEmpty()) {
+            return PageCursor.allCocktails(databaseService, cursor, limit);
+        }
+        return PageCursor.slice(databaseService.findCocktailsByIngredient(ingredientName), cursor, limit);
+    }
+
+    public Page<Cocktail> searchByIngredients(String query, String cursor, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return PageCursor.allCocktails(databaseService, cursor, limit);
+        }
+        return PageCursor.slice(databaseService.findCocktailsByIngredients(query), cursor, limit);
+    }
+
+    public Page<BarMatch> searchByBar(Collection<String> inventory, int maxMissing, String cursor, int limit) {
+        return PageCursor.slice(searchByBar(inventory, maxMissing), cursor, limit);
+    }
+
+    public Page<Cocktail> advancedSearch(String name, String alcoholBase, String difficulty, String cursor, int limit) {
+        return PageCursor.slice(advancedSearch(name, alcoholBase, difficulty), cursor, limit);
+    }
+
+    public Page<CocktailSummary> advancedSearchSummaries(String name, String alcoholBase, String difficulty,
+                                                         String cursor, int limit) {
+        return PageCursor.slice(advancedSearchSummaries(name, alcoholBase, difficulty), cursor, limit);
+    }
+
+    public Page<CocktailSummary> advancedSearchSummaries(String name, String alcoholBase, String difficulty,
+                                                         TimeRange preparationTime, TimeRange stepsDuration,
+                                                         String cursor, int limit) {
+        return PageCursor.slice(advancedSearchSummaries(name, alcoholBase, difficulty, preparationTime, stepsDuration),
+                cursor, limit);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import java.io.File;                                          // Импорт класса файла
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+import java.nio.file.Files;                                   // Импорт утилит удаления файлов
+import java.util.ArrayList;                                   // Импорт реализации списка
+import java.util.BitSet;                                      // Импорт набора битов (номера шардов)
+import java.util.Collection;                                  // Импорт интерфейса коллекции
+import java.util.List;                                        // Импорт интерфейса List
+import java.util.concurrent.*;                               // Импорт пулов потоков и Future
+import java.util.function.ToIntFunction;                     // Импорт функции «объект → ключ шардирования»
+
+/**
+ * Снимок, разбитый на SHARD_COUNT файлов-шардов по хешу ключа (для пользователей и оценок — ID пользователя).
+ * Шарды лежат в отдельной папке: users/shard-00.json, users/shard-01.json, ... (расширение зависит от формата).
+ * При изменении одной записи переписывается только её шард, поэтому цена сохранения не растёт с числом записей.
+ * При старте шарды читаются параллельно.
+ *
+ * Снимок старого формата (один файл, например users.json) читается, если шардов ещё нет;
+ * после записи всех шардов его нужно удалить — см. deleteLegacy().
+ * @param <T> тип модели
+ */
+public class ShardedSnapshotStore<T> {                       // Публичный класс шардированного снимка
+
+    private final String directory;                          // Поле: папка с шардами
+    private final String legacyBasePath;                     // Поле: путь к снимку старого формата (без расширения)
+    private final int shardCount;                            // Поле: количество шардов (менять нельзя — записи окажутся не в своих файлах)
+    private final SnapshotCodec<T> codec;                    // Поле: кодек одного файла-шарда
+    private final ToIntFunction<T> keyOf;                    // Поле: ключ шардирования записи
+
+    public ShardedSnapshotStore(String directory, String legacyBasePath, int shardCount,
+                                SnapshotCodec<T> codec, ToIntFunction<T> keyOf) {
+        this.directory = directory;
+        this.legacyBasePath = legacyBasePath;
+        this.shardCount = shardCount;
+        this.codec = codec;
+        this.keyOf = keyOf;
+    }
+
+    // Возвращает количество шардов
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Номер шарда для ключа. Хеш перемешивается, чтобы подряд идущие ID расходились по шардам равномерно.
+     */
+    public int shardOf(int key) {
+        int h = key * 0x9E3779B9;                            // Мультипликативное перемешивание (золотое сечение)
+        return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+
+    // Номер шарда для записи
+    public int shardOf(T item) {
+        return shardOf(keyOf.applyAsInt(item));
+    }
+
+    // Путь к файлу шарда без расширения
+    public String shardPath(int shard) {
+        return String.format("%s/shard-%02d", directory, shard);
+    }
+
+    /**
+     * Есть ли на диске хотя бы один шард
+     */
+    public boolean hasShards() {
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (DatabaseService.locateSnapshot(shardPath(shard)) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Файл снимка старого формата (null — если его нет)
+     */
+    public File locateLegacy() {
+        return DatabaseService.locateSnapshot(legacyBasePath);
+    }
+
+    /**
+     * Читает все шарды параллельно и возвращает записи в порядке шардов
+     * @param threads сколько потоков использовать (больше числа шардов не имеет смысла)
+     */
+    public List<T> loadShards(int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, shardCount)));
+        try {
+            List<Future<List<T>>> parts = new ArrayList<>(shardCount);  // Каждый шард читается в свой список
+            for (int shard = 0; shard < shardCount; shard++) {
+                File file = DatabaseService.locateSnapshot(shardPath(shard));
+                if (file != null) {
+                    parts.add(pool.submit(() -> {
+                        List<T> items = new ArrayList<>();
+                        codec.read(file, items::add);        // Поток читает только свой файл
+                        return items;
+                    }));
+                }
+            }
+            List<T> result = new ArrayList<>();
+            for (Future<List<T>> part : parts) {             // Склеиваем в исходном порядке шардов
+                result.addAll(part.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();              // Восстанавливаем флаг прерывания
+            throw new IOException("Загрузка шардов прервана", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                    : new IOException(e.getCause());         // Ошибку чтения шарда отдаём как есть
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Раскладывает записи по шардам; записи шардов, не отмеченных в dirtyShards, пропускаются
+     * @return список записей для каждого шарда (null для неизменённых)
+     */
+    public List<List<T>> partition(Collection<T> items, BitSet dirtyShards) {
+        List<List<T>> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(dirtyShards.get(shard) ? new ArrayList<>() : null);
+        }
+        for (T item : items) {                               // Один проход по всем записям
+            List<T> shard = shards.get(shardOf(item));
+            if (shard != null) {
+                shard.add(item);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Удаляет снимок старого формата (вызывается после того, как записаны все шарды)
+     */
+    public void deleteLegacy() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            Files.deleteIfExists(new File(legacyBasePath + format.getExtension()).toPath());
+        }
+    }
+}
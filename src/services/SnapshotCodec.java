@@ -0,0 +1,131 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import com.caucho.hessian.io.Hessian2Input;                   // Импорт двоичного читателя Hessian 2
+import com.caucho.hessian.io.Hessian2Output;                  // Импорт двоичного писателя Hessian 2
+import com.google.gson.Gson;                                  // Импорт Gson (настройки форматирования JSON)
+import com.google.gson.TypeAdapter;                           // Импорт потокового адаптера Gson
+import com.google.gson.stream.JsonReader;                     // Импорт потокового читателя JSON
+import com.google.gson.stream.JsonWriter;                     // Импорт потокового писателя JSON
+import java.io.*;                                              // Импорт классов ввода-вывода
+import java.nio.charset.StandardCharsets;                     // Импорт кодировки UTF-8
+import java.util.Arrays;                                      // Импорт утилит для сравнения массивов
+import java.util.Collection;                                  // Импорт интерфейса коллекции
+import java.util.function.Consumer;                           // Импорт функционального интерфейса-получателя
+
+/**
+ * Чтение и запись файла снимка (массива моделей) в любом из форматов SnapshotFormat.
+ * Формат при чтении определяется по содержимому: двоичный снимок начинается с сигнатуры MAGIC,
+ * каталог — с сигнатуры MappedCatalog.MAGIC, всё остальное разбирается как JSON-массив.
+ * @param <T> тип модели (Cocktail, User)
+ */
+public class SnapshotCodec<T> {                              // Публичный класс кодека снимков
+
+    private static final byte[] MAGIC = {'C', 'K', 'H', '1'};  // Константа: сигнатура двоичного снимка (Hessian, версия 1)
+
+    private final Gson gson;                                 // Поле: Gson с настройками форматирования JSON
+    private final TypeAdapter<T> jsonAdapter;                // Поле: потоковый адаптер JSON
+    private final HessianRecordCodec<T> hessianCodec;        // Поле: двоичный кодек Hessian
+
+    public SnapshotCodec(Gson gson, TypeAdapter<T> jsonAdapter, HessianRecordCodec<T> hessianCodec) {
+        this.gson = gson;
+        this.jsonAdapter = jsonAdapter;
+        this.hessianCodec = hessianCodec;
+    }
+
+    /**
+     * Определяет формат файла снимка по первым байтам
+     */
+    public static SnapshotFormat detectFormat(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = new byte[MAGIC.length];          // Читаем ровно столько байт, сколько в сигнатуре
+            int read = in.readNBytes(header, 0, header.length);
+            if (read == MAGIC.length && Arrays.equals(header, MAGIC)) {
+                return SnapshotFormat.HESSIAN;               // Сигнатура совпала — двоичный снимок
+            }
+            if (read == MappedCatalog.MAGIC.length && Arrays.equals(header, MappedCatalog.MAGIC)) {
+                return SnapshotFormat.MAPPED;                // Каталог, отображаемый в память
+            }
+            return SnapshotFormat.JSON;                      // Иначе считаем, что это JSON
+        }
+    }
+
+    /**
+     * Потоково читает снимок, автоматически определяя формат
+     * @param sink получатель, которому по одной передаются прочитанные модели
+     */
+    public void read(File file, Consumer<T> sink) throws IOException {
+        SnapshotFormat format = detectFormat(file);          // Выбираем читатель по содержимому файла
+        if (format == SnapshotFormat.MAPPED) {               // Каталог открывается отдельно (MappedCatalog), не через кодек
+            throw new IOException("Каталог " + file + " нужно открывать через MappedCatalog");
+        }
+        if (format == SnapshotFormat.HESSIAN) {
+            readHessian(file, sink);
+        } else {
+            readJson(file, sink);
+        }
+    }
+
+    /**
+     * Потоково пишет модели в файл в выбранном формате: запись за записью, без копии всего снимка в памяти.
+     * Атомарную подмену (временный файл и переименование) обеспечивает вызывающий
+     */
+    public void write(File file, Collection<T> items, SnapshotFormat format) throws IOException {
+        if (format == SnapshotFormat.MAPPED) {               // Каталог пишется отдельно (MappedCatalog), не через кодек
+            throw new IllegalArgumentException("Формат MAPPED не поддерживается кодеком снимков");
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {  // Буфер — только на размер блока
+            if (format == SnapshotFormat.HESSIAN) {
+                writeHessian(out, items);
+            } else {
+                writeJson(out, items);
+            }
+        }
+    }
+
+    // ===== JSON =====
+
+    private void readJson(File file, Consumer<T> sink) throws IOException {  // Потоково читает JSON-массив
+        try (JsonReader reader = gson.newJsonReader(new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8)))) {  // Читаем байты файла в UTF-8 без загрузки в строку
+            reader.beginArray();                             // [
+            while (reader.hasNext()) {                       // Пока в массиве есть элементы
+                sink.accept(jsonAdapter.read(reader));       // Строим объект прямо из токенов и отдаём получателю
+            }
+            reader.endArray();                               // ]
+        }
+    }
+
+    private void writeJson(OutputStream out, Collection<T> items) throws IOException {  // Пишет JSON-массив
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));  // Те же настройки, что у gson (отступы)
+        writer.beginArray();                                 // [
+        for (T item : items) {                               // Проходим по всем объектам
+            jsonAdapter.write(writer, item);                 // Пишем объект сразу в файл, без дерева JsonObject
+        }
+        writer.endArray();                                   // ]
+        writer.flush();                                      // Поток файла закрывает вызывающий
+    }
+
+    // ===== HESSIAN =====
+
+    private void readHessian(File file, Consumer<T> sink) throws IOException {  // Читает двоичный снимок
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            in.skipNBytes(MAGIC.length);                     // Пропускаем сигнатуру
+            Hessian2Input hessian = new Hessian2Input(in);   // Дальше идёт поток Hessian 2
+            int count = hessian.readInt();                   // Количество записей
+            for (int i = 0; i < count; i++) {
+                sink.accept(hessianCodec.read(hessian));     // Читаем записи по одной
+            }
+            hessian.close();
+        }
+    }
+
+    private void writeHessian(OutputStream out, Collection<T> items) throws IOException {  // Пишет двоичный снимок
+        out.write(MAGIC);                                    // Сигнатура — по ней формат определяется при чтении
+        Hessian2Output hessian = new Hessian2Output(out);
+        hessian.writeInt(items.size());                      // Количество записей
+        for (T item : items) {
+            hessianCodec.write(hessian, item);               // Записи подряд, без имён полей
+        }
+        hessian.close();                                     // Сбрасывает внутренний буфер Hessian
+    }
+}
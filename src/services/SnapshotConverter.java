@@ -0,0 +1,87 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import com.google.gson.GsonBuilder;                           // Импорт построителя Gson
+import java.io.File;                                          // Импорт класса файла
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+import java.util.ArrayList;                                   // Импорт реализации списка
+import java.util.List;                                        // Импорт интерфейса List
+
+/**
+ * Конвертер снимков между JSON, двоичным форматом Hessian и каталогом MappedCatalog (только коктейли).
+ * Запуск из корня проекта:
+ *   java services.SnapshotConverter cocktails resources/data/cocktails.json resources/data/cocktails.bin hessian
+ *   java services.SnapshotConverter users resources/data/users.bin resources/data/users.json json
+ *   java services.SnapshotConverter cocktails resources/data/cocktails.json resources/data/cocktails.cat mapped
+ * Формат входного файла определяется автоматически.
+ */
+public class SnapshotConverter {                             // Публичный утилитарный класс конвертера
+
+    /**
+     * Конвертирует снимок коктейлей
+     * @return количество перенесённых записей
+     */
+    public static int convertCocktails(File in, File out, SnapshotFormat target) throws IOException {
+        SnapshotCodec<Cocktail> codec = new SnapshotCodec<>(new GsonBuilder().setPrettyPrinting().create(),
+                new CocktailTypeAdapter(), new CocktailHessianCodec());
+        if (target != SnapshotFormat.MAPPED && SnapshotCodec.detectFormat(in) != SnapshotFormat.MAPPED) {
+            return convert(codec, in, out, target);          // Обычные снимки конвертируются общим способом
+        }
+        List<Cocktail> cocktails = new ArrayList<>();        // С каталогом работаем через MappedCatalog
+        if (SnapshotCodec.detectFormat(in) == SnapshotFormat.MAPPED) {
+            MappedCatalog.open(in, cocktails::add);
+        } else {
+            codec.read(in, cocktails::add);
+        }
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        if (target == SnapshotFormat.MAPPED) {
+            MappedCatalog.write(out, cocktails);
+        } else {
+            codec.write(out, cocktails, target);             // Подробности декодируются по мере записи
+        }
+        return cocktails.size();
+    }
+
+    /**
+     * Конвертирует снимок пользователей
+     * @return количество перенесённых записей
+     */
+    public static int convertUsers(File in, File out, SnapshotFormat target) throws IOException {
+        return convert(new SnapshotCodec<>(new GsonBuilder().setPrettyPrinting().create(),
+                new UserTypeAdapter(), new UserHessianCodec()), in, out, target);
+    }
+
+    private static <T> int convert(SnapshotCodec<T> codec, File in, File out, SnapshotFormat target) throws IOException {
+        List<T> items = new ArrayList<>();                   // Все записи снимка
+        codec.read(in, items::add);                          // Читаем в исходном формате (определяется сам)
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();                    // Создаём папки, если их нет
+        }
+        codec.write(out, items, target);                     // Пишем в целевом формате потоком
+        return items.size();
+    }
+
+    public static void main(String[] args) throws IOException {  // Точка входа для запуска из командной строки
+        if (args.length != 4) {                              // Проверяем количество аргументов
+            System.out.println("Использование: SnapshotConverter <cocktails|users> <входной файл> <выходной файл> <json|hessian|mapped>");
+            return;
+        }
+        File in = new File(args[1]);                         // Исходный снимок
+        File out = new File(args[2]);                        // Результат
+        SnapshotFormat target = SnapshotFormat.parse(args[3]);  // Целевой формат
+        long start = System.currentTimeMillis();             // Засекаем время конвертации
+        int count;
+        switch (args[0]) {                                   // Тип данных в снимке
+            case "cocktails": count = convertCocktails(in, out, target); break;
+            case "users": count = convertUsers(in, out, target); break;
+            default:
+                System.out.println("Неизвестный тип данных: " + args[0]);
+                return;
+        }
+        System.out.println("Сконвертировано записей: " + count + " (" + SnapshotCodec.detectFormat(in)
+                + " → " + target + ", " + in.length() + " → " + out.length() + " байт, "
+                + (System.currentTimeMillis() - start) + " мс)");
+    }
+}
@@ -0,0 +1,36 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+/**
+ * Формат файла снимка данных.
+ * JSON — человекочитаемый (с отступами), HESSIAN — компактный двоичный, быстрее разбирается при старте,
+ * MAPPED — каталог с индексом, подробности коктейлей читаются из файла только по требованию.
+ */
+public enum SnapshotFormat {                                 // Перечисление поддерживаемых форматов снимков
+
+    JSON(".json"),                                           // Текстовый JSON с красивым форматированием
+    HESSIAN(".bin"),                                         // Двоичный формат Hessian 2 (библиотека hessian-4.0.60)
+    MAPPED(".cat");                                          // Каталог, отображаемый в память (MappedCatalog) — только для коктейлей;
+                                                             // пользователи в этом режиме сохраняются в HESSIAN
+
+    private final String extension;                          // Поле: расширение файла снимка
+
+    SnapshotFormat(String extension) {                       // Конструктор перечисления
+        this.extension = extension;
+    }
+
+    // Возвращает расширение файла снимка (вместе с точкой)
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Разбирает название формата без учёта регистра ("json", "hessian")
+     * @param name название формата; null или пустая строка означают JSON
+     */
+    public static SnapshotFormat parse(String name) {
+        if (name == null || name.isEmpty()) {                // Формат не указан — используем JSON по умолчанию
+            return JSON;
+        }
+        return valueOf(name.trim().toUpperCase());           // Бросает IllegalArgumentException для неизвестного формата
+    }
+}
@@ -0,0 +1,121 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Каталог, постоянно упорядоченный в одном из порядков CocktailOrder.
+ *
+ * Коктейли лежат в дереве по ключу «значение поля + ID»; значение запоминается при вставке, поэтому объект,
+ * изменённый на месте, сначала убирается по старому ключу и затем вставляется по новому. Изменение одного
+ * коктейля (в том числе его рейтинга) — O(log n) вместо полной пересортировки, страница — O(log n + размер).
+ */
+public class SortedCocktailView {                            // Публичный класс упорядоченного представления
+
+    private final CocktailOrder order;                       // Поле: порядок
+    private final TreeMap<Key, Cocktail> entries;            // Поле: ключ сортировки → коктейль
+    private final Map<Integer, Key> keysById;                // Поле: ID → ключ, под которым коктейль лежит в дереве
+
+    public SortedCocktailView(CocktailOrder order) {
+        this.order = order;
+        this.entries = new TreeMap<>();
+        this.keysById = new HashMap<>();
+    }
+
+    public void add(Cocktail cocktail) {                     // Добавляет коктейль или переставляет его по текущим полям
+        remove(cocktail.getId());
+        Key key = keyOf(cocktail);
+        keysById.put(cocktail.getId(), key);
+        entries.put(key, cocktail);
+    }
+
+    public void remove(int id) {                             // Убирает коктейль по ключу, под которым он был добавлен
+        Key key = keysById.remove(id);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<Cocktail> list() {                           // Все коктейли в порядке — без сортировки
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Не больше limit коктейлей, начиная с позиции offset (дерево проходится от начала до конца страницы)
+     */
+    public List<Cocktail> page(int offset, int limit) {
+        List<Cocktail> page = new ArrayList<>(Math.max(0, Math.min(limit, entries.size() - offset)));
+        Iterator<Cocktail> it = entries.values().iterator();
+        for (int i = 0; i < offset && it.hasNext(); i++) {
+            it.next();
+        }
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+
+    /**
+     * Не больше limit коктейлей, следующих за ключом коктейля after (его самого в представлении может уже не быть).
+     * Поиск места — O(log n), поэтому листание страницами не зависит от того, как далеко от начала страница.
+     */
+    public List<Cocktail> pageAfter(Cocktail after, int limit) {
+        List<Cocktail> page = new ArrayList<>();
+        for (Cocktail cocktail : entries.tailMap(keyOf(after), false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(cocktail);
+        }
+        return page;
+    }
+
+    private Key keyOf(Cocktail cocktail) {                   // Снимок поля сортировки
+        switch (order) {
+            case DIFFICULTY:
+                return new Key(order, cocktail.getDifficulty(), 0, cocktail.getId());
+            case PREPARATION_TIME:
+                return new Key(order, null, cocktail.getPreparationTime(), cocktail.getId());
+            default:
+                return new Key(order, null, cocktail.getAverageRating(), cocktail.getId());
+        }
+    }
+
+    /**
+     * Ключ сортировки — тот же порядок, что и у CocktailOrder.comparator(), но по запомненным значениям
+     */
+    private static final class Key implements Comparable<Key> {
+        private final CocktailOrder order;
+        private final String text;                           // Сложность (для DIFFICULTY)
+        private final double number;                         // Время или рейтинг
+        private final int id;
+
+        Key(CocktailOrder order, String text, double number, int id) {
+            this.order = order;
+            this.text = text;
+            this.number = number;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result;
+            switch (order) {
+                case DIFFICULTY:                             // null — первыми, как nullsFirst в компараторе
+                    result = text == null ? (other.text == null ? 0 : -1)
+                            : other.text == null ? 1 : text.compareTo(other.text);
+                    break;
+                case RATING:                                 // Лучшие сверху
+                    result = Double.compare(other.number, number);
+                    break;
+                default:
+                    result = Double.compare(number, other.number);
+            }
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
+}
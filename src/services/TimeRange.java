@@ -0,0 +1,69 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+/**
+ * Диапазон времени в минутах для фильтров «от a до b минут»; обе границы включаются.
+ * Длительность шагов тоже сравнивается в минутах: Cocktail.getTotalStepDuration() переводит секунды шагов в минуты.
+ */
+public final class TimeRange {                               // Неизменяемый диапазон
+
+    private final int min;                                   // Поле: нижняя граница (включительно)
+    private final int max;                                   // Поле: верхняя граница (включительно)
+
+    private TimeRange(int min, int max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public static TimeRange between(int min, int max) {      // От min до max минут
+        return new TimeRange(min, max);
+    }
+
+    public static TimeRange atMost(int max) {                // Не дольше max минут
+        return new TimeRange(Integer.MIN_VALUE, max);
+    }
+
+    public static TimeRange atLeast(int min) {               // Не меньше min минут
+        return new TimeRange(min, Integer.MAX_VALUE);
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public boolean contains(int minutes) {
+        return minutes >= min && minutes <= max;
+    }
+
+    public boolean isEmpty() {                               // Нижняя граница больше верхней — ничего не подходит
+        return min > max;
+    }
+
+    @Override
+    public boolean equals(Object o) {                        // По границам — диапазон служит частью ключа кэша запросов
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeRange)) {
+            return false;
+        }
+        TimeRange other = (TimeRange) o;
+        return min == other.min && max == other.max;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * min + max;
+    }
+
+    @Override
+    public String toString() {
+        if (min == Integer.MIN_VALUE) {
+            return "до " + max + " мин";
+        }
+        return max == Integer.MAX_VALUE ? "от " + min + " мин" : "от " + min + " до " + max + " мин";
+    }
+}
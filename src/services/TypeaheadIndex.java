@@ -0,0 +1,113 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.Cocktail;                                      // Импорт модели коктейля
+import models.Ingredient;                                    // Импорт модели ингредиента
+import models.Suggestion;                                    // Импорт подсказки
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Подсказки при вводе: префиксные деревья названий коктейлей и названий ингредиентов.
+ *
+ * Вес названия — сумма средних оценок коктейлей с этим названием, вес ингредиента — сумма средних оценок
+ * коктейлей, в которые он входит: популярное и хорошо оценённое поднимается выше. Для каждого коктейля
+ * запоминается, что и с каким весом он внёс, чтобы изменение, удаление или новая оценка вычитали ровно это.
+ */
+public class TypeaheadIndex {                                // Публичный класс индекса подсказок
+
+    private final PrefixTrie names;                          // Поле: названия коктейлей
+    private final PrefixTrie ingredients;                    // Поле: названия ингредиентов
+    private final Map<Integer, Contribution> contributions;  // Поле: ID коктейля → что он внёс в деревья
+
+    public TypeaheadIndex() {
+        this.names = new PrefixTrie();
+        this.ingredients = new PrefixTrie();
+        this.contributions = new HashMap<>();
+    }
+
+    /**
+     * Индекс по всему каталогу; деревья заполняются без промежуточных пересчётов
+     */
+    public static TypeaheadIndex of(Collection<Cocktail> cocktails) {
+        TypeaheadIndex index = new TypeaheadIndex();
+        for (Cocktail cocktail : cocktails) {
+            index.add(cocktail, true);
+        }
+        index.names.finishBulk();
+        index.ingredients.finishBulk();
+        return index;
+    }
+
+    public static String normalize(String text) {            // Приведение, общее для словаря и для вводимого текста
+        return FuzzyNameIndex.normalize(text);               // Регистр, «ё», знаки препинания, латинские двойники
+    }
+
+    public void add(Cocktail cocktail) {                     // Добавляет коктейль или обновляет его вклад (название, состав, рейтинг)
+        add(cocktail, false);
+    }
+
+    public void remove(int id) {                             // Вычитает вклад коктейля
+        Contribution previous = contributions.remove(id);
+        if (previous == null) {
+            return;
+        }
+        names.remove(previous.name, previous.weight);
+        for (String ingredient : previous.ingredients) {
+            ingredients.remove(ingredient, previous.weight);
+        }
+    }
+
+    /**
+     * Не больше limit подсказок каждого вида по началу названия или любого его слова: сначала коктейли, затем ингредиенты
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> result = new ArrayList<>();
+        if (key.isEmpty()) {
+            return result;
+        }
+        for (PrefixTrie.Term term : names.suggest(key, limit)) {
+            result.add(new Suggestion(term.getText(), Suggestion.Kind.COCKTAIL, term.getWeight()));
+        }
+        for (PrefixTrie.Term term : ingredients.suggest(key, limit)) {
+            result.add(new Suggestion(term.getText(), Suggestion.Kind.INGREDIENT, term.getWeight()));
+        }
+        return result;
+    }
+
+    private void add(Cocktail cocktail, boolean bulk) {
+        remove(cocktail.getId());
+        Contribution contribution = new Contribution(cocktail.getName() == null ? "" : normalize(cocktail.getName()),
+                cocktail.getAverageRating());
+        put(names, contribution.name, cocktail.getName(), contribution.weight, bulk);
+        for (Ingredient ingredient : cocktail.getIngredients()) {
+            if (ingredient.getName() == null) {
+                continue;
+            }
+            String key = normalize(ingredient.getName());
+            if (!key.isEmpty() && !contribution.ingredients.contains(key)) {  // Повтор ингредиента в рецепте считаем один раз
+                contribution.ingredients.add(key);
+                put(ingredients, key, ingredient.getName(), contribution.weight, bulk);
+            }
+        }
+        contributions.put(cocktail.getId(), contribution);
+    }
+
+    private static void put(PrefixTrie trie, String key, String text, double weight, boolean bulk) {
+        if (bulk) {
+            trie.addBulk(key, text, weight);
+        } else {
+            trie.add(key, text, weight);
+        }
+    }
+
+    private static final class Contribution {                // Вклад одного коктейля: ключи и вес, с которым они добавлены
+        private final String name;
+        private final double weight;
+        private final List<String> ingredients = new ArrayList<>(4);
+
+        Contribution(String name, double weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+}
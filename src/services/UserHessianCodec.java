@@ -0,0 +1,32 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.User;                                          // Импорт модели пользователя
+import com.caucho.hessian.io.Hessian2Input;                   // Импорт двоичного читателя Hessian 2
+import com.caucho.hessian.io.Hessian2Output;                  // Импорт двоичного писателя Hessian 2
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+
+/**
+ * Двоичное представление User в формате Hessian 2
+ */
+public class UserHessianCodec implements HessianRecordCodec<User> {
+
+    @Override
+    public void write(Hessian2Output out, User u) throws IOException {  // Записывает пользователя
+        out.writeInt(u.getId());
+        out.writeString(u.getUsername());
+        out.writeString(u.getEmail());
+        out.writeString(u.getPasswordHash());
+
+        out.writeInt(0);                                     // Оценки хранятся отдельно; поле оставлено для совместимости со старыми снимками
+    }
+
+    @Override
+    public User read(Hessian2Input in) throws IOException {  // Читает пользователя в том же порядке полей
+        User u = new User(in.readInt(), in.readString(), in.readString(), in.readString());
+        int ratingCount = in.readInt();                      // Количество оценок (ненулевое только в снимках старого формата)
+        for (int i = 0; i < ratingCount; i++) {
+            u.rateCocktail(in.readInt(), in.readInt());      // ID коктейля и оценка
+        }
+        return u;
+    }
+}
@@ -6,11 +6,11 @@ import utils.ValidationUtil;          // Импортируем утилиту 
 
 public class UserService {             // Класс сервиса управления пользователями
 
-    private DatabaseService databaseService;  // Поле: ссылка на сервис работы с "базой данных" (JSON-файлы)
+    private DataRepository databaseService;   // Поле: ссылка на хранилище пользователей (JSON-файлы, память или SQL)
     private PasswordHasher passwordHasher;     // Поле: объект для безопасной работы с паролями
 
-    // Конструктор — получает зависимость от DatabaseService
-    public UserService(DatabaseService databaseService) {
+    // Конструктор — получает зависимость от хранилища
+    public UserService(DataRepository databaseService) {
         this.databaseService = databaseService;        // Сохраняем ссылку на сервис БД
         this.passwordHasher = new PasswordHasher();    // Создаём новый объект для хеширования паролей
     }
@@ -97,6 +97,14 @@ public class UserService {             // Класс сервиса управл
         return databaseService.getUserRating(userId, cocktailId); // Делегируем в DatabaseService
     }
 
+    /**
+     * Полная сверка средних рейтингов с оценками пользователей (обычно средние обновляются при каждой оценке)
+     * Возвращает число коктейлей, у которых среднее пришлось исправить
+     */
+    public int reconcileRatings() {
+        return databaseService.reconcileRatings();
+    }
+
     /**
      * Удалить пользователя по ID (не используется в текущем UI, но может пригодиться)
      */
@@ -113,10 +121,6 @@ public class UserService {             // Класс сервиса управл
 
     // Вспомогательный приватный метод — генерирует следующий ID для нового пользователя
     private int getNextUserId() {
-        return databaseService.getAllUsers().stream()  // Получаем поток всех пользователей
-                .mapToInt(User::getId)                 // Преобразуем в поток ID
-                .max()                                 // Находим максимальный ID
-                .orElse(0)                             // Если пользователей нет — возвращаем 0
-                + 1;                                   // Увеличиваем на 1 — это будет новый ID
+        return databaseService.getNextUserId();        // Максимальный ID + 1 — считает хранилище
     }
 }
\ No newline at end of file
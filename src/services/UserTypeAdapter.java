@@ -0,0 +1,58 @@
+package services;                                            // Объявление пакета — класс относится к слою хранения данных
+
+import models.User;                                          // Импорт модели пользователя
+import com.google.gson.TypeAdapter;                           // Импорт базового класса потокового адаптера Gson
+import com.google.gson.stream.JsonReader;                     // Импорт потокового читателя JSON
+import com.google.gson.stream.JsonWriter;                     // Импорт потокового писателя JSON
+import java.io.IOException;                                   // Импорт исключения ввода-вывода
+import java.util.LinkedHashMap;                               // Импорт карты с сохранением порядка
+import java.util.Map;                                         // Импорт интерфейса Map
+
+/**
+ * Потоковое преобразование User ↔ JSON (без промежуточного дерева JsonObject).
+ * Пишутся только данные профиля; оценки читаются, если встречаются в файлах старого формата.
+ */
+public class UserTypeAdapter extends TypeAdapter<User> {     // Адаптер Gson для модели пользователя
+
+    @Override
+    public void write(JsonWriter out, User u) throws IOException {  // Записывает пользователя в поток JSON
+        out.beginObject();
+        out.name("id").value(u.getId());
+        out.name("username").value(u.getUsername());
+        out.name("email").value(u.getEmail());
+        out.name("passwordHash").value(u.getPasswordHash());
+        out.endObject();                                     // Оценки здесь не пишутся — у них отдельное хранилище (ratings)
+    }
+
+    @Override
+    public User read(JsonReader in) throws IOException {     // Читает одного пользователя из потока JSON
+        int id = 0;
+        String username = null;
+        String email = null;
+        String passwordHash = null;
+        Map<Integer, Integer> ratings = new LinkedHashMap<>();  // Оценки накапливаем до создания объекта
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id": id = in.nextInt(); break;
+                case "username": username = CocktailTypeAdapter.nextString(in); break;
+                case "email": email = CocktailTypeAdapter.nextString(in); break;
+                case "passwordHash": passwordHash = CocktailTypeAdapter.nextString(in); break;
+                case "ratings":                              // Старый формат: оценки хранились внутри пользователя
+                    in.beginObject();
+                    while (in.hasNext()) {                   // Ключи — ID коктейлей в виде строк
+                        ratings.put(Integer.parseInt(in.nextName()), in.nextInt());
+                    }
+                    in.endObject();
+                    break;
+                default: in.skipValue();                     // Неизвестные поля пропускаем
+            }
+        }
+        in.endObject();
+
+        User u = new User(id, username, email, passwordHash);  // Создаём пользователя
+        ratings.forEach(u::rateCocktail);                    // Восстанавливаем оценки
+        return u;
+    }
+}
@@ -1,6 +1,7 @@
 package ui;  // Объявляем, что класс находится в пакете ui
 
-import models.Cocktail;  // Импортируем модель коктейля для отображения в списке и деталях
+import models.Cocktail;  // Импортируем модель коктейля для отображения деталей
+import models.CocktailSummary;  // Импортируем краткое представление коктейля для строк списка
 import models.User;       // Импортируем модель пользователя (не используется напрямую здесь, но может быть нужен позже)
 
 import javax.swing.*;               // Импортируем все компоненты Swing
@@ -11,8 +12,8 @@ public class CocktailListPanel extends JPanel {  // Панель со списк
 
     private MainWindow mainWindow;  // Ссылка на главное окно для доступа к сервисам и навигации
 
-    private JList<Cocktail> cocktailList;            // Список всех коктейлей
-    private DefaultListModel<Cocktail> listModel;    // Модель данных для динамического обновления списка
+    private JList<CocktailSummary> cocktailList;     // Список всех коктейлей (только краткие данные)
+    private DefaultListModel<CocktailSummary> listModel;  // Модель данных для динамического обновления списка
     private JButton viewDetailsButton;               // Кнопка «Подробнее» — открывает отдельное окно
     private JButton searchButton;                    // Кнопка перехода на поиск
     private JButton profileButton;                   // Кнопка перехода в профиль
@@ -76,7 +77,7 @@ public class CocktailListPanel extends JPanel {  // Панель со списк
         JPanel leftButtonPanel = new JPanel(new FlowLayout());          // Панель с горизонтальным расположением
         viewDetailsButton = new JButton("Подробнее");                   // Кнопка открытия детального окна
         viewDetailsButton.addActionListener(e -> {                      // Обработчик нажатия
-            Cocktail selected = cocktailList.getSelectedValue();        // Получаем выбранный коктейль
+            Cocktail selected = loadSelectedCocktail();                 // Загружаем выбранный коктейль целиком
             if (selected != null) {                                     // Если что-то выбрано
                 new CocktailDetailPanel(mainWindow, selected).setVisible(true); // Открываем новое окно с деталями
             }
@@ -110,14 +111,19 @@ public class CocktailListPanel extends JPanel {  // Панель со списк
 
     public void refreshCocktails() {                                    // Метод обновления списка коктейлей
         listModel.clear();                                              // Очищаем текущий список
-        List<Cocktail> cocktails = mainWindow.getCocktailService().getAllCocktails(); // Получаем свежие данные из сервиса
-        for (Cocktail c : cocktails) {                                  // Проходим по всем коктейлям
+        List<CocktailSummary> cocktails = mainWindow.getCocktailService().getCocktailSummaries(); // Краткие данные — без ингредиентов и шагов
+        for (CocktailSummary c : cocktails) {                           // Проходим по всем коктейлям
             listModel.addElement(c);                                    // Добавляем каждый в модель
         }
     }
 
+    private Cocktail loadSelectedCocktail() {                           // Полные данные выбранного коктейля (по ID)
+        CocktailSummary summary = cocktailList.getSelectedValue();      // Выбранная строка списка
+        return summary == null ? null : mainWindow.getCocktailService().getCocktailById(summary.getId());
+    }
+
     private void updateDetailsArea() {                                  // Обновляет правую часть при выборе коктейля
-        Cocktail selected = cocktailList.getSelectedValue();            // Получаем выбранный коктейль
+        Cocktail selected = loadSelectedCocktail();                     // Подробности загружаются только для выбранного
         if (selected != null) {                                         // Если что-то выбрано
             StringBuilder sb = new StringBuilder();                     // Создаём буфер для текста
             sb.append("═══════════════════════════════════\n");        // Верхняя линия
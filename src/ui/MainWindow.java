@@ -1,7 +1,8 @@
 package ui;  // Определение пакета: этот класс относится к компонентам пользовательского интерфейса
 
 import services.CocktailService;  // Импорт класса CocktailService из пакета services для управления коктейлями
-import services.DatabaseService;  // Импорт класса DatabaseService из пакета services для взаимодействия с базой данных
+import services.DataRepository;  // Импорт интерфейса хранилища данных из пакета services
+import services.RepositoryFactory;  // Импорт фабрики, выбирающей хранилище (файлы, память или SQL)
 import services.SearchService;  // Импорт класса SearchService из пакета services для функций поиска
 import services.UserService;  // Импорт класса UserService из пакета services для управления пользователями
 import models.User;  // Импорт класса User из пакета models, представляющего модель пользователя
@@ -12,7 +13,7 @@ import java.awt.*;  // Импорт всех классов из пакета ja
 public class MainWindow extends JFrame {  // Объявление публичного класса MainWindow, наследующего от JFrame (основного окна в Swing)
 
     // Поля класса: приватные сервисы для взаимодействия с данными
-    private DatabaseService databaseService;  // Сервис для работы с базой данных
+    private DataRepository repository;  // Хранилище данных (выбирается системным свойством cocktails.repository)
     private CocktailService cocktailService;  // Сервис для управления коктейлями
     private SearchService searchService;  // Сервис для поиска
     private UserService userService;  // Сервис для управления пользователями
@@ -32,14 +33,20 @@ public class MainWindow extends JFrame {  // Объявление публичн
 
     public MainWindow() {  // Конструктор класса MainWindow
         // Инициализация сервисов
-        this.databaseService = new DatabaseService();  // Создание экземпляра сервиса базы данных
-        this.cocktailService = new CocktailService(databaseService);  // Создание сервиса коктейлей с передачей базы данных
-        this.searchService = new SearchService(databaseService);  // Создание сервиса поиска с передачей базы данных
-        this.userService = new UserService(databaseService);  // Создание сервиса пользователей с передачей базы данных
+        this.repository = RepositoryFactory.create();  // Создание хранилища данных
+        this.cocktailService = new CocktailService(repository);  // Создание сервиса коктейлей с передачей хранилища
+        this.searchService = new SearchService(repository);  // Создание сервиса поиска с передачей хранилища
+        this.userService = new UserService(repository);  // Создание сервиса пользователей с передачей хранилища
 
         // Настройка главного окна
         setTitle("🍹 Cocktail Manager - Управление коктейлями");  // Установка заголовка окна
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);  // Установка поведения при закрытии: выход из приложения
+        addWindowListener(new java.awt.event.WindowAdapter() {  // Перед выходом сохраняем несохранённое и закрываем хранилище
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                repository.shutdown();
+            }
+        });
         setSize(900, 700);  // Установка размеров окна (ширина 900, высота 700)
         setLocationRelativeTo(null);  // Центрирование окна на экране
         setResizable(true);  // Разрешение изменения размера окна
@@ -131,8 +138,8 @@ public class MainWindow extends JFrame {  // Объявление публичн
         return userService;  // Возврат сервиса
     }
 
-    public DatabaseService getDatabaseService() {  // Геттер для сервиса базы данных
-        return databaseService;  // Возврат сервиса
+    public DataRepository getRepository() {  // Геттер для хранилища данных
+        return repository;  // Возврат хранилища
     }
 
     public static void main(String[] args) {  // Главный метод для запуска приложения
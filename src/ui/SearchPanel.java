@@ -1,24 +1,32 @@
 package ui;  // Объявляем, что класс находится в пакете ui
 
 import models.Cocktail;  // Импортируем модель коктейля, чтобы работать с объектами Cocktail
+import models.CocktailSummary;  // Импортируем краткое представление коктейля для списка результатов
+import models.Suggestion;  // Импортируем подсказку при вводе названия
 
 import javax.swing.*;  // Импортируем все классы из пакета javax.swing (JPanel, JButton, JList и т.д.)
+import javax.swing.event.DocumentEvent;  // Импортируем событие изменения текста
+import javax.swing.event.DocumentListener;  // Импортируем слушатель изменения текста (подсказки при вводе)
 import java.awt.*;  // Импортируем все классы из java.awt (BorderLayout, GridBagLayout, Color и т.д.)
+import java.util.ArrayList;  // Импортируем ArrayList для результатов поиска по ингредиенту
 import java.util.List;  // Импортируем интерфейс List для хранения списка найденных коктейлей
+import java.util.Map;   // Импортируем Map для счётчиков «значение → число коктейлей»
 
 public class SearchPanel extends JPanel {  // Объявляем публичный класс SearchPanel, который наследуется от JPanel
 
     private MainWindow mainWindow;  // Поле для хранения ссылки на главное окно приложения
 
     private JTextField searchField;  // Поле ввода для поиска по названию коктейля
-    private JComboBox<String> alcoholBaseCombo;  // Выпадающий список для выбора алкогольной основы
-    private JComboBox<String> difficultyCombo;  // Выпадающий список для выбора сложности приготовления
+    private JComboBox<FacetItem> alcoholBaseCombo;  // Выпадающий список для выбора алкогольной основы
+    private JComboBox<FacetItem> difficultyCombo;  // Выпадающий список для выбора сложности приготовления
     private JButton searchButton;   // Кнопка «Поиск»
     private JButton backButton;     // Кнопка «Назад»
     private JButton clearButton;    // Кнопка «Очистить»
-    private DefaultListModel<Cocktail> resultListModel;  // Модель данных для динамического списка результатов
-    private JList<Cocktail> resultList;                  // Список, в котором отображаются найденные коктейли
+    private DefaultListModel<CocktailSummary> resultListModel;  // Модель данных для динамического списка результатов
+    private JList<CocktailSummary> resultList;                  // Список, в котором отображаются найденные коктейли
     private JTextArea detailsArea;                       // Текстовое поле для подробного описания выбранного коктейля
+    private JPopupMenu suggestionPopup;                  // Всплывающий список подсказок под полем названия
+    private boolean applyingSuggestion;                  // Текст меняется выбором подсказки — новые подсказки не нужны
 
     public SearchPanel(MainWindow mainWindow) {  // Конструктор класса, принимает главное окно
         this.mainWindow = mainWindow;            // Сохраняем переданную ссылку на MainWindow
@@ -47,6 +55,25 @@ public class SearchPanel extends JPanel {  // Объявляем публичн
 
         // Поле ввода названия
         searchField = new JTextField(15);
+        searchField.addActionListener(e -> performSearch()); // Enter в поле — тот же поиск, что и кнопка
+        suggestionPopup = new JPopupMenu();
+        suggestionPopup.setFocusable(false);              // Фокус остаётся в поле — можно продолжать печатать
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                SwingUtilities.invokeLater(SearchPanel.this::showSuggestions); // Подсказки — после того, как текст обновится
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                SwingUtilities.invokeLater(SearchPanel.this::showSuggestions);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Меняются только атрибуты текста — подсказки те же
+            }
+        });
         gbc.gridx = 1;          // Столбец 1
         gbc.weightx = 0.3;      // Растягивать поле
         topPanel.add(searchField, gbc);
@@ -58,11 +85,7 @@ public class SearchPanel extends JPanel {  // Объявляем публичн
         topPanel.add(alcoholLabel, gbc);
 
         // Выпадающий список алкогольных основ
-        alcoholBaseCombo = new JComboBox<>();
-        alcoholBaseCombo.addItem("Все"); // Первый пункт — без фильтра
-        for (String base : mainWindow.getSearchService().getAvailableAlcoholBases()) {
-            alcoholBaseCombo.addItem(base); // Заполняем реальными основами из сервиса
-        }
+        alcoholBaseCombo = new JComboBox<>(); // Пункты с числом коктейлей заполняются в showCatalogCounts()
         gbc.gridx = 3;
         gbc.weightx = 0.3;
         topPanel.add(alcoholBaseCombo, gbc);
@@ -75,10 +98,7 @@ public class SearchPanel extends JPanel {  // Объявляем публичн
 
         // Выпадающий список сложности
         difficultyCombo = new JComboBox<>();
-        difficultyCombo.addItem("Все");
-        for (String difficulty : mainWindow.getSearchService().getAvailableDifficulties()) {
-            difficultyCombo.addItem(difficulty);
-        }
+        showCatalogCounts();                            // Заполняем оба списка значениями из каталога
         gbc.gridx = 5;
         gbc.weightx = 0.3;
         topPanel.add(difficultyCombo, gbc);
@@ -144,35 +164,128 @@ public class SearchPanel extends JPanel {  // Объявляем публичн
 
     private void performSearch() {                     // Метод, выполняющий поиск
         String name = searchField.getText().trim();    // Получаем текст из поля (без пробелов по краям)
-        String alcoholBase = (String) alcoholBaseCombo.getSelectedItem(); // Текущая выбранная основа
-        String difficulty = (String) difficultyCombo.getSelectedItem();   // Текущая выбранная сложность
+        String alcoholBase = selectedValue(alcoholBaseCombo); // Текущая выбранная основа ("" — «Все», без фильтра)
+        String difficulty = selectedValue(difficultyCombo);   // Текущая выбранная сложность
 
-        if ("Все".equals(alcoholBase)) alcoholBase = "";   // "Все" → пустая строка (отключаем фильтр)
-        if ("Все".equals(difficulty)) difficulty = "";     // Аналогично для сложности
-
-        List<Cocktail> results = mainWindow.getSearchService() // Обращаемся к сервису поиска
-                .advancedSearch(name, alcoholBase, difficulty); // Выполняем расширенный поиск
+        List<CocktailSummary> results = mainWindow.getSearchService() // Обращаемся к сервису поиска
+                .advancedSearchSummaries(name, alcoholBase, difficulty); // Расширенный поиск; подробности — при выборе
+        showResults(results);
+    }
 
+    private void showResults(List<CocktailSummary> results) {  // Выводит найденное и числа по нему в выпадающих списках
+        suggestionPopup.setVisible(false);             // Поиск выполнен — подсказки больше не нужны
         resultListModel.clear();                          // Очищаем предыдущие результаты
-        for (Cocktail c : results) {                       // Проходим по всем найденным коктейлям
+        for (CocktailSummary c : results) {                // Проходим по всем найденным коктейлям
             resultListModel.addElement(c);                 // Добавляем каждый в список
         }
+        // Числа в списках — по найденному, за один проход по результатам
+        relabel(alcoholBaseCombo, mainWindow.getSearchService().countAlcoholBases(results), results.size());
+        relabel(difficultyCombo, mainWindow.getSearchService().countDifficulties(results), results.size());
 
         if (results.isEmpty()) {                           // Если ничего не найдено
             detailsArea.setText("По вашему запросу ничего не найдено"); // Показываем сообщение
         }
     }
 
+    // ===== Подсказки при вводе =====
+
+    private void showSuggestions() {                   // Обновляет всплывающий список по тексту в поле
+        if (applyingSuggestion || !searchField.isShowing()) {
+            return;
+        }
+        List<Suggestion> suggestions = mainWindow.getSearchService().suggest(searchField.getText(), 5);
+        suggestionPopup.setVisible(false);
+        suggestionPopup.removeAll();
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        for (Suggestion suggestion : suggestions) {
+            JMenuItem item = new JMenuItem(suggestion.toString());
+            item.addActionListener(e -> applySuggestion(suggestion));
+            suggestionPopup.add(item);
+        }
+        suggestionPopup.show(searchField, 0, searchField.getHeight()); // Под полем ввода
+        searchField.requestFocusInWindow();
+    }
+
+    private void applySuggestion(Suggestion suggestion) {  // Выбор подсказки сразу выполняет поиск
+        applyingSuggestion = true;
+        if (suggestion.getKind() == Suggestion.Kind.COCKTAIL) {
+            searchField.setText(suggestion.getText());
+            performSearch();
+        } else {                                   // Ингредиент — коктейли, в которые он входит
+            searchField.setText("");
+            List<CocktailSummary> results = new ArrayList<>();
+            for (Cocktail c : mainWindow.getSearchService().searchByIngredient(suggestion.getText())) {
+                results.add(CocktailSummary.of(c));
+            }
+            showResults(results);
+        }
+        // Снимаем флаг в очереди событий — после отложенных обновлений подсказок от setText
+        SwingUtilities.invokeLater(() -> applyingSuggestion = false);
+    }
+
     private void clearFilters() {                      // Метод очистки всех фильтров
         searchField.setText("");                       // Очищаем поле названия
         alcoholBaseCombo.setSelectedIndex(0);          // Ставим "Все" в выпадающих списках
         difficultyCombo.setSelectedIndex(0);
         resultListModel.clear();                       // Удаляем все результаты из списка
+        suggestionPopup.setVisible(false);
         detailsArea.setText("");                        // Очищаем область с деталями
+        showCatalogCounts();                           // Без результатов показываем числа по всему каталогу
+    }
+
+    // ===== Счётчики в выпадающих списках =====
+
+    private void showCatalogCounts() {                 // Заново заполняет списки значениями каталога с их числом
+        fill(alcoholBaseCombo, mainWindow.getSearchService().getAlcoholBaseCounts());
+        fill(difficultyCombo, mainWindow.getSearchService().getDifficultyCounts());
+    }
+
+    private void fill(JComboBox<FacetItem> combo, Map<String, Integer> counts) {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        combo.removeAllItems();
+        combo.addItem(new FacetItem(null, total));     // Первый пункт — «Все», без фильтра
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            combo.addItem(new FacetItem(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void relabel(JComboBox<FacetItem> combo, Map<String, Integer> counts, int total) {
+        for (int i = 0; i < combo.getItemCount(); i++) {  // Пункты и выбор остаются, меняются только числа
+            FacetItem item = combo.getItemAt(i);
+            item.count = item.value == null ? total : counts.getOrDefault(item.value, 0);
+        }
+        combo.repaint();
+    }
+
+    private String selectedValue(JComboBox<FacetItem> combo) {
+        FacetItem item = (FacetItem) combo.getSelectedItem();
+        return item == null || item.value == null ? "" : item.value;
+    }
+
+    private static class FacetItem {                   // Пункт списка: значение и число коктейлей с ним
+        private final String value;                    // null — пункт «Все»
+        private int count;
+
+        FacetItem(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        @Override
+        public String toString() {                     // Например, «Ром (1 204)»
+            return (value == null ? "Все" : value) + String.format(" (%,d)", count);
+        }
     }
 
     private void updateDetailsArea() {                 // Обновляет правую часть при выборе коктейля
-        Cocktail selected = resultList.getSelectedValue(); // Получаем выбранный коктейль
+        CocktailSummary summary = resultList.getSelectedValue(); // Получаем выбранную строку
+        Cocktail selected = summary == null ? null       // Полные данные загружаем по ID только для неё
+                : mainWindow.getCocktailService().getCocktailById(summary.getId());
         if (selected != null) {                        // Если что-то выбрано
             StringBuilder sb = new StringBuilder();    // Создаём строковый буфер
             sb.append("═══════════════════════════════════\n");
@@ -192,12 +305,6 @@ public class SearchPanel extends JPanel {  // Объявляем публичн
     }
 
     public void refresh() {                            // Метод для обновления панели при возврате на неё
-        clearFilters();                                // Сначала очищаем всё
-        alcoholBaseCombo.removeAllItems();             // Удаляем старые пункты списка основ
-        alcoholBaseCombo.addItem("Все");               // Добавляем пункт «Все»
-        for (String base : mainWindow.getSearchService().getAvailableAlcoholBases()) {
-            alcoholBaseCombo.addItem(base);            // Заново заполняем актуальными основами
-        }
-        // При необходимости можно обновить и список сложности аналогично
+        clearFilters();                                // Очищаем всё и заново заполняем основы и сложности из каталога
     }
 }
\ No newline at end of file
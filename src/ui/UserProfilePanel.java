@@ -1,6 +1,7 @@
 package ui;  // Объявляем, что класс находится в пакете ui
 
 import models.Cocktail;  // Импортируем модель коктейля для выбора и отображения
+import models.CocktailSummary;  // Импортируем краткое представление коктейля для выпадающего списка
 import models.User;       // Импортируем модель пользователя для доступа к его данным
 
 import javax.swing.*;               // Импортируем все компоненты Swing
@@ -13,7 +14,7 @@ public class UserProfilePanel extends JPanel {  // Класс панели пр
 
     private JLabel usernameLabel;   // Метка для отображения имени пользователя
     private JLabel emailLabel;      // Метка для отображения email
-    private JComboBox<Cocktail> cocktailCombo;  // Выпадающий список для выбора коктейля
+    private JComboBox<CocktailSummary> cocktailCombo;  // Выпадающий список для выбора коктейля
     private JSlider ratingSlider;   // Слайдер для выбора оценки от 1 до 5
     private JButton rateButton;     // Кнопка "Оценить"
     private JButton backButton;     // Кнопка "Назад"
@@ -151,7 +152,7 @@ public class UserProfilePanel extends JPanel {  // Класс панели пр
     }
 
     private void submitRating() {                                 // Метод отправки оценки
-        Cocktail selected = (Cocktail) cocktailCombo.getSelectedItem(); // Получаем выбранный коктейль
+        CocktailSummary selected = (CocktailSummary) cocktailCombo.getSelectedItem(); // Получаем выбранный коктейль
         if (selected == null) {                                   // Проверка: выбран ли коктейль
             JOptionPane.showMessageDialog(this, "Выберите коктейль для оценивания"); // Сообщение об ошибке
             return;                                               // Прерываем выполнение
@@ -161,6 +162,7 @@ public class UserProfilePanel extends JPanel {  // Класс панели пр
         int rating = ratingSlider.getValue();                     // Получаем значение слайдера
 
         mainWindow.getUserService().rateCocktail(currentUser.getId(), selected.getId(), rating); // Сохраняем оценку
+        currentUser.rateCocktail(selected.getId(), rating);       // Обновляем и объект текущего пользователя (хранилище может отдавать копии)
 
         JOptionPane.showMessageDialog(this, "Оценка сохранена!"); // Уведомление об успехе
         refreshRatings();                                         // Обновляем список оценок
@@ -174,7 +176,7 @@ public class UserProfilePanel extends JPanel {  // Класс панели пр
         }
 
         cocktailCombo.removeAllItems();                           // Очищаем список коктейлей
-        for (Cocktail c : mainWindow.getCocktailService().getAllCocktails()) { // Перебираем все коктейли
+        for (CocktailSummary c : mainWindow.getCocktailService().getCocktailSummaries()) { // Перебираем все коктейли (только краткие данные)
             cocktailCombo.addItem(c);                             // Добавляем каждый в комбобокс
         }
 
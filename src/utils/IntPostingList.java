@@ -0,0 +1,150 @@
+package utils;                                               // Объявление пакета — класс относится к вспомогательным утилитам приложения
+
+import java.util.Arrays;                                      // Импорт утилит для работы с массивами
+
+/**
+ * Отсортированный список различных целых чисел (например, ID коктейлей) на массиве int[].
+ * Используется как список вхождений в инвертированных индексах: компактнее Set<Integer>
+ * и пересекается слиянием за линейное время.
+ */
+public class IntPostingList {                                // Публичный класс списка вхождений
+
+    private int[] values;                                    // Поле: значения по возрастанию (занята часть [0, size))
+    private int size;                                        // Поле: количество значений
+
+    public IntPostingList() {
+        this.values = new int[4];                            // Большинство списков короткие
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {                              // Значение по порядковому номеру
+        return values[index];
+    }
+
+    public boolean contains(int value) {                     // Двоичный поиск
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    /**
+     * Добавляет значение; возрастающие значения дописываются в конец за O(1)
+     * @return false — если значение уже было
+     */
+    public boolean add(int value) {
+        int position = size == 0 || values[size - 1] < value ? -(size + 1) : Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {                                 // Уже есть
+            return false;
+        }
+        int insertAt = -(position + 1);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);        // Растём вдвое
+        }
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Удаляет значение
+     * @return false — если значения не было
+     */
+    public boolean remove(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    public int[] toArray() {                                 // Копия значений по возрастанию
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Пересечение двух отсортированных массивов слиянием
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {                                         // Общее значение
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Пересечение отсортированного массива со списком: для каждого элемента массива — двоичный поиск в списке.
+     * Выгодно, когда массив намного короче списка.
+     */
+    public int[] retainAll(int[] candidates) {
+        if (candidates.length * 8 > size) {                  // Сопоставимые размеры — слиянием
+            return intersect(candidates, toArray());
+        }
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int candidate : candidates) {
+            if (contains(candidate)) {
+                result[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Объединение двух отсортированных массивов слиянием
+     */
+    public static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[count++] = a[i++];
+            } else if (i == a.length || a[i] > b[j]) {
+                result[count++] = b[j++];
+            } else {                                         // Одно значение в обоих — берём один раз
+                result[count++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Разность отсортированных массивов: значения a, которых нет в b
+     */
+    public static int[] difference(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        int count = 0;
+        int j = 0;
+        for (int value : a) {
+            while (j < b.length && b[j] < value) {
+                j++;
+            }
+            if (j == b.length || b[j] != value) {
+                result[count++] = value;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,142 @@
+package utils;                                               // Объявление пакета — вспомогательные классы
+
+/**
+ * Стеммер русского языка по алгоритму Snowball (Портера): отсекает окончания и суффиксы, чтобы «белком»,
+ * «белок» и «белка» давали одну основу. Слово должно быть уже в нижнем регистре, «ё» заменена на «е».
+ *
+ * Окончания ищутся только в области RV (после первой гласной), словообразовательный суффикс «ость» —
+ * в области R2; из подходящих окончаний группы всегда берётся самое длинное.
+ */
+public final class RussianStemmer {                          // Утилитный класс — только статические методы
+
+    private static final String VOWELS = "аеиоуыэюя";
+
+    // Группы окончаний; «1» — окончания, которые снимаются только после «а» или «я»
+    private static final String[] PERFECTIVE_GERUND_1 = {"вшись", "вши", "в"};
+    private static final String[] PERFECTIVE_GERUND_2 = {"ившись", "ывшись", "ивши", "ывши", "ив", "ыв"};
+    private static final String[] ADJECTIVE = {"ими", "ыми", "его", "ого", "ему", "ому", "ее", "ие", "ые", "ое", "ей",
+            "ий", "ый", "ой", "ем", "им", "ым", "ом", "их", "ых", "ую", "юю", "ая", "яя", "ою", "ею"};
+    private static final String[] PARTICIPLE_1 = {"ем", "нн", "вш", "ющ", "щ"};
+    private static final String[] PARTICIPLE_2 = {"ивш", "ывш", "ующ"};
+    private static final String[] REFLEXIVE = {"ся", "сь"};
+    private static final String[] VERB_1 = {"ете", "йте", "ешь", "нно", "ла", "на", "ли", "ем", "ло", "но", "ет", "ют",
+            "ны", "ть", "й", "л", "н"};
+    private static final String[] VERB_2 = {"ейте", "уйте", "ила", "ыла", "ена", "ите", "или", "ыли", "ило", "ыло", "ено",
+            "ует", "уют", "ены", "ить", "ыть", "ишь", "ей", "уй", "ил", "ыл", "им", "ым", "ен", "ят", "ит", "ыт", "ую", "ю"};
+    private static final String[] NOUN = {"иями", "ями", "ами", "ией", "иям", "ием", "иях", "ев", "ов", "ие", "ье", "еи",
+            "ии", "ей", "ой", "ий", "ям", "ем", "ам", "ом", "ах", "ях", "ию", "ью", "ия", "ья", "а", "е", "и", "й", "о",
+            "у", "ы", "ь", "ю", "я"};
+    private static final String[] SUPERLATIVE = {"ейше", "ейш"};
+    private static final String[] DERIVATIONAL = {"ость", "ост"};
+
+    private RussianStemmer() {
+    }
+
+    public static String stem(String word) {
+        int rv = rv(word);
+        if (rv >= word.length()) {                           // Нет гласной или она последняя — отсекать нечего
+            return word;
+        }
+        int r2 = r2(word);
+        StringBuilder sb = new StringBuilder(word);
+
+        // Шаг 1: деепричастие совершенного вида; иначе возвратная частица, затем прилагательное, глагол или существительное
+        if (!cut(sb, rv, PERFECTIVE_GERUND_1, true) && !cut(sb, rv, PERFECTIVE_GERUND_2, false)) {
+            cut(sb, rv, REFLEXIVE, false);
+            if (!cutAdjectival(sb, rv)
+                    && !cut(sb, rv, VERB_1, true) && !cut(sb, rv, VERB_2, false)) {
+                cut(sb, rv, NOUN, false);
+            }
+        }
+        // Шаг 2: конечная «и»
+        cut(sb, rv, new String[]{"и"}, false);
+        // Шаг 3: словообразовательный суффикс в R2
+        cut(sb, Math.max(rv, r2), DERIVATIONAL, false);
+        // Шаг 4: «нн» → «н», превосходная степень, мягкий знак
+        if (!undoubleN(sb, rv)) {
+            if (cut(sb, rv, SUPERLATIVE, false)) {
+                undoubleN(sb, rv);
+            } else {
+                cut(sb, rv, new String[]{"ь"}, false);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean cutAdjectival(StringBuilder sb, int rv) {  // Прилагательное, возможно после причастия
+        if (!cut(sb, rv, ADJECTIVE, false)) {
+            return false;
+        }
+        if (!cut(sb, rv, PARTICIPLE_1, true)) {
+            cut(sb, rv, PARTICIPLE_2, false);
+        }
+        return true;
+    }
+
+    /**
+     * Снимает самое длинное из окончаний, целиком лежащее в области [from, конец); afterA — только после «а»/«я»
+     */
+    private static boolean cut(StringBuilder sb, int from, String[] endings, boolean afterA) {
+        String best = null;
+        for (String ending : endings) {
+            int start = sb.length() - ending.length();
+            if (start < from || (best != null && ending.length() <= best.length()) || !endsWith(sb, start, ending)) {
+                continue;
+            }
+            if (afterA && (start - 1 < from || (sb.charAt(start - 1) != 'а' && sb.charAt(start - 1) != 'я'))) {
+                continue;
+            }
+            best = ending;
+        }
+        if (best == null) {
+            return false;
+        }
+        sb.setLength(sb.length() - best.length());
+        return true;
+    }
+
+    private static boolean endsWith(StringBuilder sb, int start, String ending) {  // Без копии хвоста слова
+        for (int i = 0; i < ending.length(); i++) {
+            if (sb.charAt(start + i) != ending.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean undoubleN(StringBuilder sb, int rv) {
+        int length = sb.length();
+        if (length - 2 >= rv && sb.charAt(length - 1) == 'н' && sb.charAt(length - 2) == 'н') {
+            sb.setLength(length - 1);
+            return true;
+        }
+        return false;
+    }
+
+    private static int rv(String word) {                     // Позиция после первой гласной
+        for (int i = 0; i < word.length(); i++) {
+            if (isVowel(word.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    private static int r2(String word) {                     // R1 — после первой согласной, идущей за гласной; R2 — то же внутри R1
+        int r1 = region(word, 0);
+        return region(word, r1);
+    }
+
+    private static int region(String word, int from) {
+        for (int i = from + 1; i < word.length(); i++) {
+            if (!isVowel(word.charAt(i)) && isVowel(word.charAt(i - 1))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    private static boolean isVowel(char ch) {
+        return VOWELS.indexOf(ch) >= 0;
+    }
+}
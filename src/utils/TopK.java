@@ -0,0 +1,35 @@
+package utils;                                               // Объявление пакета — вспомогательные классы
+
+import java.util.*;                                          // Импорт коллекций
+
+/**
+ * Первые k элементов в заданном порядке без сортировки всего набора: куча ограниченного размера,
+ * O(n log k) времени и O(k) памяти вместо O(n log n) и копии всех элементов.
+ */
+public final class TopK {                                    // Утилитный класс — только статические методы
+
+    private TopK() {
+    }
+
+    /**
+     * Не больше k наименьших в порядке order элементов, упорядоченных по order.
+     * При равенстве порядок задаёт сам order (для устойчивого результата в нём должен быть ID)
+     */
+    public static <T> List<T> top(Iterable<T> items, int k, Comparator<? super T> order) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());  // Вершина — худший из отобранных
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {  // Лучше худшего — вытесняет его
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}